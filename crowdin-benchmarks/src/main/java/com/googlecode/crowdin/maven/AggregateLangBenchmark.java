@@ -0,0 +1,77 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.PropertiesReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aggregation of a regional language by the aggregate goal: reading the files of every dependency, merging them with
+ * the default language, and with the base language or not at all in sparse mode, then writing the bundle. The bundle
+ * is already written by a previous build, so it is only compared.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AggregateLangBenchmark {
+
+    @Param({"100", "1000"})
+    public int keys;
+
+    @Param({"10", "50"})
+    public int modules;
+
+    /**
+     * merge: with the default language, hierarchy: also with the base language, sparse: on its own.
+     */
+    @Param({"merge", "hierarchy", "sparse"})
+    public String mode;
+
+    @Param({"false", "true"})
+    public boolean binary;
+
+    private File folder;
+    private AggregateCrowdinMojo mojo;
+    private SortedMap<String, String> defaults;
+
+    @Setup
+    public void createTranslations() throws Exception {
+        folder = Datasets.createTempDirectory("crowdin-aggregate");
+        File crowdinFolder = new File(folder, "crowdin");
+        List<String> mavenIds = Datasets.mavenIds(modules);
+        Datasets.writeTranslations(crowdinFolder, Arrays.asList("en", "pt", "pt_BR"), mavenIds, keys);
+        defaults = new TreeMap<>();
+        for (String mavenId : mavenIds) {
+            PropertiesReader.load(new File(crowdinFolder, "en/" + mavenId + "/messages.properties"), defaults);
+        }
+
+        mojo = new AggregateCrowdinMojo();
+        mojo.messagesOutputDirectory = crowdinFolder;
+        mojo.resourceAggregatedOutputDirectory = new File(folder, "aggregated");
+        mojo.coverageReportDirectory = new File(folder, "coverage");
+        mojo.sparseBundles = "sparse".equals(mode);
+        mojo.binaryBundles = binary;
+        mojo.setLog(Datasets.quietLog());
+        aggregate();
+    }
+
+    @TearDown
+    public void deleteFolder() throws Exception {
+        Datasets.delete(folder);
+    }
+
+    @Benchmark
+    public SortedMap<String, String> aggregate() throws Exception {
+        return mojo.aggregateLang(new File(mojo.messagesOutputDirectory, "pt_BR"), "pt_BR",
+                "hierarchy".equals(mode) ? "pt" : null, defaults, new ArrayList<String>());
+    }
+}
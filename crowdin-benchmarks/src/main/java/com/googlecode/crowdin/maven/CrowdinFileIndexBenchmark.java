@@ -0,0 +1,67 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.CrowdinFileIndex;
+import com.googlecode.crowdin.maven.tool.CrowdinNode;
+import com.googlecode.crowdin.maven.tool.CrowdinResponseParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of the info response of a crowdin project, and the lookups the push goal makes in it: the folder of each
+ * module, its children and each of its files.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CrowdinFileIndexBenchmark {
+
+    @Param({"10", "200"})
+    public int modules;
+
+    @Param({"1", "4"})
+    public int depth;
+
+    @Param({"10"})
+    public int filesPerFolder;
+
+    private byte[] response;
+    private List<String> mavenIds;
+    private List<String> paths;
+    private CrowdinFileIndex index;
+
+    @Setup
+    public void createResponse() throws Exception {
+        mavenIds = Datasets.mavenIds(modules);
+        response = Datasets.infoResponse(mavenIds, depth, filesPerFolder);
+        paths = Datasets.infoPaths(mavenIds, depth, filesPerFolder);
+        index = CrowdinResponseParser.parse(new ByteArrayInputStream(response)).getFiles();
+        if (index.size() != paths.size() + modules * depth) {
+            throw new IllegalStateException("Parsed " + index.size() + " nodes");
+        }
+    }
+
+    @Benchmark
+    public CrowdinFileIndex parse() throws Exception {
+        return CrowdinResponseParser.parse(new ByteArrayInputStream(response)).getFiles();
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for (String mavenId : mavenIds) {
+            blackhole.consume(index.containsFolder(mavenId));
+            for (CrowdinNode node : index.getChildren(mavenId)) {
+                blackhole.consume(node.isFolder());
+            }
+        }
+        for (String path : paths) {
+            blackhole.consume(index.containsFile(path));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.PropertiesWriter;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Generators of the synthetic data the benchmarks run on, parameterised by key count, languages, modules and tree
+ * depth. The same parameters always give the same data.
+ */
+final class Datasets {
+
+    static final String GROUP_ID = "com.example";
+
+    private Datasets() {
+    }
+
+    /**
+     * @return the codes of the given number of languages, the default language first
+     */
+    static List<String> languages(int count) {
+        List<String> languages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            languages.add(i == 0 ? "en" : "l" + i);
+        }
+        return languages;
+    }
+
+    /**
+     * @return the mavenIds of the given number of modules
+     */
+    static List<String> mavenIds(int count) {
+        List<String> mavenIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mavenIds.add(GROUP_ID + ".module" + i);
+        }
+        return mavenIds;
+    }
+
+    /**
+     * Messages of a module in a language, with escaped and non-Latin characters in some of them as in real
+     * translations.
+     */
+    static TreeMap<String, String> messages(String mavenId, String language, int keys) {
+        TreeMap<String, String> messages = new TreeMap<>();
+        Random random = new Random(31L * mavenId.hashCode() + language.hashCode());
+        for (int i = 0; i < keys; i++) {
+            StringBuilder value = new StringBuilder(language).append(": message ").append(i);
+            switch (random.nextInt(8)) {
+                case 0:
+                    value.append(" with é, ü and 中文");
+                    break;
+                case 1:
+                    value.append(" on\ntwo lines: {0} = {1}");
+                    break;
+                default:
+                    value.append(" of ").append(mavenId);
+            }
+            messages.put(mavenId.substring(mavenId.lastIndexOf('.') + 1) + ".section" + i % 16 + ".key" + i,
+                    value.toString());
+        }
+        return messages;
+    }
+
+    /**
+     * Writes a crowdin folder as pulled: language/mavenId/messages.properties.
+     */
+    static void writeTranslations(File folder, List<String> languages, List<String> mavenIds, int keys)
+            throws IOException {
+        for (String language : languages) {
+            for (String mavenId : mavenIds) {
+                File file = new File(folder, language + "/" + mavenId + "/messages.properties");
+                file.getParentFile().mkdirs();
+                try (OutputStream out = new FileOutputStream(file)) {
+                    PropertiesWriter.write(messages(mavenId, language, keys), null, out);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes an archive as downloaded from crowdin, with the translations of the given modules and as many
+     * translations of modules that are not dependencies.
+     */
+    static void writeArchive(File archive, List<String> languages, List<String> mavenIds, int keys)
+            throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (String language : languages) {
+                for (String mavenId : mavenIds) {
+                    for (String module : new String[]{mavenId, "org.other." + mavenId}) {
+                        zip.putNextEntry(new ZipEntry(language + "/" + module + "/messages.properties"));
+                        PropertiesWriter.write(messages(module, language, keys), null, zip);
+                        zip.closeEntry();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the response of the info method for a project with a folder per module, each one nesting folders
+     * down to the given depth with the given number of files in each folder
+     */
+    static byte[] infoResponse(List<String> mavenIds, int depth, int filesPerFolder) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<info><files>");
+        for (String mavenId : mavenIds) {
+            appendFolder(xml, mavenId, depth, filesPerFolder);
+        }
+        xml.append("</files><details><name>benchmark</name></details></info>");
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendFolder(StringBuilder xml, String name, int depth, int filesPerFolder) {
+        xml.append("<item><node_type>directory</node_type><name>").append(name).append("</name><files>");
+        if (depth > 1) {
+            appendFolder(xml, "sub" + depth, depth - 1, filesPerFolder);
+        }
+        for (int i = 0; i < filesPerFolder; i++) {
+            xml.append("<item><node_type>file</node_type><name>messages").append(i)
+                    .append(".properties</name><created>2013-01-31T13:33:14+0000</created>")
+                    .append("<last_updated>2013-01-31T13:33:14+0000</last_updated><last_revision>").append(i + 1)
+                    .append("</last_revision></item>");
+        }
+        xml.append("</files></item>");
+    }
+
+    /**
+     * @return the paths of the files of {@link #infoResponse(List, int, int)}
+     */
+    static List<String> infoPaths(List<String> mavenIds, int depth, int filesPerFolder) {
+        List<String> paths = new ArrayList<>();
+        for (String mavenId : mavenIds) {
+            String folder = mavenId;
+            for (int level = depth; level >= 1; level--) {
+                for (int i = 0; i < filesPerFolder; i++) {
+                    paths.add(folder + "/messages" + i + ".properties");
+                }
+                folder = folder + "/sub" + level;
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * @return a log dropping every message, so that logging is not measured
+     */
+    static Log quietLog() {
+        return (Log) Proxy.newProxyInstance(Datasets.class.getClassLoader(), new Class<?>[]{Log.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+                        if (method.getDeclaringClass() == Object.class) {
+                            return method.invoke(this, args);
+                        }
+                        return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                    }
+                });
+    }
+
+    static File createTempDirectory(String prefix) throws IOException {
+        return Files.createTempDirectory(prefix).toFile();
+    }
+
+    static void delete(File file) throws IOException {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        if (!file.delete() && file.exists()) {
+            throw new IOException("Failed to delete " + file);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.TranslationFile;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extraction of the translations of the dependencies from all.zip by the pull goal, half of the archive being
+ * translations of other modules. The translations are either already in the crowdin folder, as when pulling again
+ * after an unrelated change, or all written.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExtractTranslationsBenchmark {
+
+    @Param({"100", "1000"})
+    public int keys;
+
+    @Param({"5", "20"})
+    public int languages;
+
+    @Param({"10", "50"})
+    public int modules;
+
+    @Param({"false", "true"})
+    public boolean changed;
+
+    private File folder;
+    private File archive;
+    private Set<String> mavenIds;
+    private PullCrowdinMojo mojo;
+
+    @Setup(Level.Trial)
+    public void createArchive() throws Exception {
+        folder = Datasets.createTempDirectory("crowdin-extract");
+        archive = new File(folder, "all.zip");
+        Datasets.writeArchive(archive, Datasets.languages(languages), Datasets.mavenIds(modules), keys);
+        mavenIds = new HashSet<>(Datasets.mavenIds(modules));
+        mojo = new PullCrowdinMojo();
+        mojo.messagesOutputDirectory = new File(folder, "crowdin");
+        mojo.setLog(Datasets.quietLog());
+        mojo.extractTranslations(archive, null, mavenIds);
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanCrowdinFolder() throws Exception {
+        if (changed) {
+            Datasets.delete(mojo.messagesOutputDirectory);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFolder() throws Exception {
+        Datasets.delete(folder);
+    }
+
+    @Benchmark
+    public Set<TranslationFile> extract() throws Exception {
+        return mojo.extractTranslations(archive, null, mavenIds);
+    }
+}
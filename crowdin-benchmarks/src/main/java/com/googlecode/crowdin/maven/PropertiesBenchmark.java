@@ -0,0 +1,66 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.PropertiesReader;
+import com.googlecode.crowdin.maven.tool.PropertiesWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading and storing of a translation file, compared with {@link Properties} which the goals used before.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PropertiesBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int keys;
+
+    private TreeMap<String, String> messages;
+    private Properties properties;
+    private byte[] bytes;
+
+    @Setup
+    public void createMessages() {
+        messages = Datasets.messages(Datasets.GROUP_ID + ".module0", "fr", keys);
+        properties = new Properties();
+        properties.putAll(messages);
+        bytes = PropertiesWriter.toBytes(messages, AggregateCrowdinMojo.COMMENT);
+    }
+
+    @Benchmark
+    public Map<String, String> load() throws IOException {
+        TreeMap<String, String> loaded = new TreeMap<>();
+        PropertiesReader.load(new ByteArrayInputStream(bytes), loaded);
+        return loaded;
+    }
+
+    @Benchmark
+    public byte[] store() {
+        return PropertiesWriter.toBytes(messages, AggregateCrowdinMojo.COMMENT);
+    }
+
+    @Benchmark
+    public Properties loadProperties() throws IOException {
+        Properties loaded = new Properties();
+        loaded.load(new ByteArrayInputStream(bytes));
+        return loaded;
+    }
+
+    @Benchmark
+    public byte[] storeProperties() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        properties.store(out, AggregateCrowdinMojo.COMMENT);
+        return out.toByteArray();
+    }
+}
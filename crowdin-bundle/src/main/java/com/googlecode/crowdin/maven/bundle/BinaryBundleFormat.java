@@ -0,0 +1,31 @@
+package com.googlecode.crowdin.maven.bundle;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Layout of a binary message bundle, all integers being big endian:
+ * <pre>
+ * magic    int   'CRWB'
+ * version  int   1
+ * count    int   number of entries
+ * index    count x (keyOffset, keyLength, valueOffset, valueLength) ints, sorted by unsigned UTF-8 key bytes
+ * pool     UTF-8 bytes of keys and values, offsets of the index being relative to its start
+ * </pre>
+ * This class and the other classes of this package only depend on the JDK so that they can be used at runtime.
+ */
+final class BinaryBundleFormat {
+
+    static final int MAGIC = 0x43525742;
+
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 12;
+
+    static final int INDEX_ENTRY_SIZE = 16;
+
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    private BinaryBundleFormat() {
+    }
+}
@@ -0,0 +1,60 @@
+package com.googlecode.crowdin.maven.bundle;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Encodes messages in the binary bundle format read by {@link MappedResourceBundle}.
+ */
+public final class BinaryBundleWriter {
+
+    private static final Comparator<byte[]> UNSIGNED_ORDER = new Comparator<byte[]>() {
+        @Override
+        public int compare(byte[] left, byte[] right) {
+            int length = Math.min(left.length, right.length);
+            for (int i = 0; i < length; i++) {
+                int diff = (left[i] & 0xFF) - (right[i] & 0xFF);
+                if (diff != 0) {
+                    return diff;
+                }
+            }
+            return left.length - right.length;
+        }
+    };
+
+    private BinaryBundleWriter() {
+    }
+
+    public static byte[] toBytes(Map<String, String> messages) {
+        // String order and UTF-8 byte order differ for supplementary characters, sort on the encoded keys
+        SortedMap<byte[], byte[]> entries = new TreeMap<>(UNSIGNED_ORDER);
+        int poolSize = 0;
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            byte[] key = message.getKey().getBytes(BinaryBundleFormat.CHARSET);
+            byte[] value = message.getValue().getBytes(BinaryBundleFormat.CHARSET);
+            entries.put(key, value);
+            poolSize += key.length + value.length;
+        }
+
+        int indexSize = entries.size() * BinaryBundleFormat.INDEX_ENTRY_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(BinaryBundleFormat.HEADER_SIZE + indexSize + poolSize);
+        buffer.putInt(BinaryBundleFormat.MAGIC);
+        buffer.putInt(BinaryBundleFormat.VERSION);
+        buffer.putInt(entries.size());
+
+        int offset = 0;
+        for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+            buffer.putInt(offset);
+            buffer.putInt(entry.getKey().length);
+            offset += entry.getKey().length;
+            buffer.putInt(offset);
+            buffer.putInt(entry.getValue().length);
+            offset += entry.getValue().length;
+        }
+        for (Map.Entry<byte[], byte[]> entry : entries.entrySet()) {
+            buffer.put(entry.getKey());
+            buffer.put(entry.getValue());
+        }
+        return buffer.array();
+    }
+}
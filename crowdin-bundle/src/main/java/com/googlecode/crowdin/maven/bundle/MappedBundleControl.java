@@ -0,0 +1,64 @@
+package com.googlecode.crowdin.maven.bundle;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.*;
+
+/**
+ * Loads binary message bundles ({@code messages_fr.bin}) written by the aggregate goal, falling back to properties
+ * bundles. Use it with {@code ResourceBundle.getBundle("messages", locale, MappedBundleControl.INSTANCE)}.
+ */
+public class MappedBundleControl extends ResourceBundle.Control {
+
+    public static final String FORMAT_BINARY = "crowdin.binary";
+
+    public static final String EXTENSION = "bin";
+
+    public static final MappedBundleControl INSTANCE = new MappedBundleControl();
+
+    private static final List<String> FORMATS = Collections.unmodifiableList(
+            Arrays.asList(FORMAT_BINARY, "java.properties"));
+
+    protected MappedBundleControl() {
+    }
+
+    @Override
+    public List<String> getFormats(String baseName) {
+        if (baseName == null) {
+            throw new NullPointerException();
+        }
+        return FORMATS;
+    }
+
+    @Override
+    public ResourceBundle newBundle(String baseName, Locale locale, String format, ClassLoader loader, boolean reload)
+            throws IllegalAccessException, InstantiationException, IOException {
+        if (!FORMAT_BINARY.equals(format)) {
+            return super.newBundle(baseName, locale, format, loader, reload);
+        }
+        String resourceName = toResourceName(toBundleName(baseName, locale), EXTENSION);
+        URL url = loader.getResource(resourceName);
+        if (url == null) {
+            return null;
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return MappedResourceBundle.open(new File(url.toURI()));
+            } catch (URISyntaxException e) {
+                // read it as a stream
+            }
+        }
+        // Resources in a jar can not be mapped, read them directly outside of the heap
+        URLConnection connection = url.openConnection();
+        if (reload) {
+            connection.setUseCaches(false);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            return MappedResourceBundle.read(in, connection.getContentLengthLong());
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.googlecode.crowdin.maven.bundle;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.*;
+
+/**
+ * A resource bundle reading its messages from a binary bundle, usually memory-mapped. Keys are looked up with a
+ * binary search in the index of the bundle, only the values that are asked for are decoded.
+ */
+public class MappedResourceBundle extends ResourceBundle {
+
+    private static final int DEFAULT_SIZE = 64 * 1024;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int poolStart;
+
+    public MappedResourceBundle(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < BinaryBundleFormat.HEADER_SIZE || buffer.getInt(0) != BinaryBundleFormat.MAGIC) {
+            throw new IOException("Not a binary message bundle");
+        }
+        if (buffer.getInt(4) != BinaryBundleFormat.VERSION) {
+            throw new IOException("Unsupported binary message bundle version " + buffer.getInt(4));
+        }
+        this.count = buffer.getInt(8);
+        this.poolStart = BinaryBundleFormat.HEADER_SIZE + count * BinaryBundleFormat.INDEX_ENTRY_SIZE;
+        if (count < 0 || poolStart > buffer.capacity()) {
+            throw new IOException("Corrupted binary message bundle");
+        }
+    }
+
+    /**
+     * Memory-maps a binary bundle file.
+     */
+    public static MappedResourceBundle open(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            FileChannel channel = in.getChannel();
+            return new MappedResourceBundle(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads a binary bundle that is not a plain file, in a direct buffer outside of the heap.
+     */
+    public static MappedResourceBundle read(InputStream in) throws IOException {
+        return read(in, -1);
+    }
+
+    /**
+     * Reads a binary bundle that is not a plain file, in a direct buffer outside of the heap.
+     *
+     * @param length the length of the bundle if it is known, -1 otherwise
+     */
+    public static MappedResourceBundle read(InputStream in, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Binary message bundle too large");
+        }
+        ReadableByteChannel channel = Channels.newChannel(in);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(length >= 0 ? (int) length : DEFAULT_SIZE);
+        while (true) {
+            if (!buffer.hasRemaining()) {
+                // The length is a hint only, check the end of the stream before growing
+                int next = in.read();
+                if (next == -1) {
+                    break;
+                }
+                ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(DEFAULT_SIZE, buffer.capacity() * 2));
+                buffer.flip();
+                grown.put(buffer);
+                grown.put((byte) next);
+                buffer = grown;
+            }
+            if (channel.read(buffer) == -1) {
+                break;
+            }
+        }
+        buffer.flip();
+        return new MappedResourceBundle(buffer.slice());
+    }
+
+    @Override
+    protected Object handleGetObject(String key) {
+        int index = find(key.getBytes(BinaryBundleFormat.CHARSET));
+        if (index < 0) {
+            return null;
+        }
+        int entry = BinaryBundleFormat.HEADER_SIZE + index * BinaryBundleFormat.INDEX_ENTRY_SIZE;
+        return decode(buffer.getInt(entry + 8), buffer.getInt(entry + 12));
+    }
+
+    @Override
+    public Enumeration<String> getKeys() {
+        Set<String> keys = new LinkedHashSet<>(handleKeySet());
+        if (parent != null) {
+            keys.addAll(Collections.list(parent.getKeys()));
+        }
+        return Collections.enumeration(keys);
+    }
+
+    @Override
+    protected Set<String> handleKeySet() {
+        Set<String> keys = new LinkedHashSet<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = BinaryBundleFormat.HEADER_SIZE + i * BinaryBundleFormat.INDEX_ENTRY_SIZE;
+            keys.add(decode(buffer.getInt(entry), buffer.getInt(entry + 4)));
+        }
+        return keys;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private int find(byte[] key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = BinaryBundleFormat.HEADER_SIZE + middle * BinaryBundleFormat.INDEX_ENTRY_SIZE;
+            int comparison = compare(buffer.getInt(entry), buffer.getInt(entry + 4), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int offset, int length, byte[] key) {
+        int start = poolStart + offset;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(start + i) & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String decode(int offset, int length) {
+        byte[] bytes = new byte[length];
+        int start = poolStart + offset;
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(start + i);
+        }
+        return new String(bytes, BinaryBundleFormat.CHARSET);
+    }
+}
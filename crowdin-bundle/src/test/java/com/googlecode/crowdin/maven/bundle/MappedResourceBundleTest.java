@@ -0,0 +1,107 @@
+package com.googlecode.crowdin.maven.bundle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+public class MappedResourceBundleTest {
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private static Map<String, String> messages(int count) {
+        Map<String, String> messages = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            messages.put("key." + i, "value " + i + " é中");
+        }
+        return messages;
+    }
+
+    private static void assertBundle(Map<String, String> expected, ResourceBundle bundle) {
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), bundle.getString(entry.getKey()));
+        }
+        assertEquals(expected.keySet(), new TreeSet<>(Collections.list(bundle.getKeys())));
+        assertFalse(bundle.containsKey("missing"));
+    }
+
+    @Test
+    public void readsWrittenBundle() throws IOException {
+        Map<String, String> messages = messages(100);
+        byte[] bytes = BinaryBundleWriter.toBytes(messages);
+        assertBundle(messages, MappedResourceBundle.read(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    public void readsEmptyBundle() throws IOException {
+        byte[] bytes = BinaryBundleWriter.toBytes(Collections.<String, String>emptyMap());
+        MappedResourceBundle bundle = MappedResourceBundle.read(new ByteArrayInputStream(bytes));
+        assertEquals(0, bundle.size());
+        assertFalse(bundle.getKeys().hasMoreElements());
+    }
+
+    @Test
+    public void readsWithWrongLength() throws IOException {
+        Map<String, String> messages = messages(1000);
+        byte[] bytes = BinaryBundleWriter.toBytes(messages);
+        assertBundle(messages, MappedResourceBundle.read(new ByteArrayInputStream(bytes), 16));
+        assertBundle(messages, MappedResourceBundle.read(new ByteArrayInputStream(bytes), bytes.length * 2L));
+        assertBundle(messages, MappedResourceBundle.read(new ByteArrayInputStream(bytes), -1));
+    }
+
+    @Test
+    public void opensMappedFile() throws IOException {
+        Map<String, String> messages = messages(100);
+        File file = temp.newFile("messages_fr.bin");
+        Files.write(file.toPath(), BinaryBundleWriter.toBytes(messages));
+        assertBundle(messages, MappedResourceBundle.open(file));
+    }
+
+    @Test
+    public void loadsBundlesFromJar() throws IOException {
+        Map<String, String> defaults = new TreeMap<>();
+        defaults.put("greeting", "Hello");
+        defaults.put("farewell", "Bye");
+        Map<String, String> french = new TreeMap<>();
+        french.put("greeting", "Bonjour");
+
+        File jar = temp.newFile("messages.jar");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            out.putNextEntry(new JarEntry("messages.bin"));
+            out.write(BinaryBundleWriter.toBytes(defaults));
+            out.putNextEntry(new JarEntry("messages_fr.bin"));
+            out.write(BinaryBundleWriter.toBytes(french));
+        }
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toURI().toURL()}, null)) {
+            ResourceBundle bundle = ResourceBundle.getBundle("messages", Locale.FRENCH, loader,
+                    MappedBundleControl.INSTANCE);
+            assertTrue(bundle instanceof MappedResourceBundle);
+            assertEquals("Bonjour", bundle.getString("greeting"));
+            assertEquals("Bye", bundle.getString("farewell"));
+        }
+    }
+
+    @Test
+    public void fallsBackToProperties() throws IOException {
+        File folder = temp.newFolder("classes");
+        Files.write(new File(folder, "messages.properties").toPath(), "greeting=Hello\n".getBytes("ISO-8859-1"));
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{folder.toURI().toURL()}, null)) {
+            ResourceBundle bundle = ResourceBundle.getBundle("messages", Locale.FRENCH, loader,
+                    MappedBundleControl.INSTANCE);
+            assertEquals("Hello", bundle.getString("greeting"));
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.ApiThrottle;
+import com.googlecode.crowdin.maven.tool.BuildMetrics;
+import com.googlecode.crowdin.maven.tool.CrowdinFileIndex;
+import com.googlecode.crowdin.maven.tool.CrowdinResponse;
+import com.googlecode.crowdin.maven.tool.CrowdinResponseParser;
+import com.googlecode.crowdin.maven.tool.RetryPolicy;
+import com.googlecode.crowdin.maven.tool.SharedHttpClient;
+import org.apache.commons.io.input.ProxyInputStream;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.HttpEntityWrapper;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.FileBody;
+import org.apache.http.entity.mime.content.StringBody;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.manager.WagonManager;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ConnectException;
+import java.util.*;
+import java.util.Map.Entry;
+
+public abstract class AbstractCrowdinMojo extends AbstractMetricsMojo {
+
+    /**
+     * API methods that can be sent again without side effects if their response was lost.
+     */
+    private static final Set<String> IDEMPOTENT_METHODS = new HashSet<>(Arrays.asList("info", "update-file",
+            "status", "export-status"));
+
+    /**
+     * Handles a crowdin response, which is closed afterwards.
+     */
+    protected interface ResponseHandler<T> {
+        T handle(HttpResponse response) throws Exception;
+    }
+
+    /**
+     * The Maven Wagon manager to use when obtaining server authentication details.
+     */
+    @Component
+    protected WagonManager wagonManager;
+
+    /**
+     * Server id in settings.xml. username is project identifier, password is API key
+     */
+    @Parameter(property = "crowdinServerId", required = true)
+    protected String crowdinServerId;
+
+    /**
+     * Base URL of the crowdin API projects, to be changed to use a proxy or a local stand-in server.
+     */
+    @Parameter(property = "crowdinApiUrl", defaultValue = "http://api.crowdin.net/api/project/", required = true)
+    protected String apiUrl;
+
+    /**
+     * The directory where the messages can be fund.
+     */
+    @Parameter(defaultValue = "${project.basedir}/src/main/messages", required = true)
+    protected File messagesInputDirectory;
+
+    /**
+     * The directory where the messages can be fund.
+     */
+    @Parameter(defaultValue = "${project.basedir}/src/main/crowdin", required = true)
+    protected File messagesOutputDirectory;
+
+    /**
+     * Ignore what was recorded by previous pushes and pulls, and transfer every file.
+     */
+    @Parameter(property = "crowdinForce", defaultValue = "false")
+    protected boolean force;
+
+    /**
+     * Timeout in milliseconds to connect to crowdin.
+     */
+    @Parameter(property = "crowdinConnectTimeout", defaultValue = "30000")
+    protected int connectTimeout;
+
+    /**
+     * Timeout in milliseconds while waiting for data from crowdin.
+     */
+    @Parameter(property = "crowdinReadTimeout", defaultValue = "120000")
+    protected int readTimeout;
+
+    /**
+     * Maximum number of connections to crowdin, shared by all the modules of the build.
+     */
+    @Parameter(property = "crowdinMaxConnections", defaultValue = "20")
+    protected int maxConnections;
+
+    /**
+     * Maximum number of attempts of a request failing with a transient error (timeout, 5xx, rate limit).
+     */
+    @Parameter(property = "crowdinRetryAttempts", defaultValue = "4")
+    protected int retryAttempts;
+
+    /**
+     * Delay in milliseconds before the first retry, doubled for each following retry.
+     */
+    @Parameter(property = "crowdinRetryDelay", defaultValue = "1000")
+    protected long retryDelay;
+
+    /**
+     * Maximum delay in milliseconds between two attempts, unless crowdin asks for a longer one with Retry-After.
+     */
+    @Parameter(property = "crowdinRetryMaxDelay", defaultValue = "60000")
+    protected long retryMaxDelay;
+
+    /**
+     * Maximum time in milliseconds spent on a single request, retries and rate limit pauses included. Each request
+     * has its own deadline, this is not a limit on the whole goal.
+     */
+    @Parameter(property = "crowdinRetryTimeout", defaultValue = "600000")
+    protected long retryTimeout;
+
+    protected CloseableHttpClient client;
+    protected ApiThrottle throttle;
+    protected AuthenticationInfo authenticationInfo;
+
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        authenticationInfo = wagonManager.getAuthenticationInfo(crowdinServerId);
+        if (authenticationInfo == null) {
+            throw new MojoExecutionException("Failed to find server with id " + crowdinServerId
+                    + " in Maven settings (~/.m2/settings.xml)");
+        }
+        client = SharedHttpClient.get(session, connectTimeout, readTimeout, maxConnections);
+        throttle = ApiThrottle.get(session);
+    }
+
+    /**
+     * Retrieves the files and folders of the crowdin project.
+     */
+    protected CrowdinFileIndex crowdinRequestFiles() throws MojoExecutionException {
+        CrowdinResponse projectDetails = crowdinRequestAPI("info", null, null, true);
+        CrowdinFileIndex index = projectDetails.getFiles();
+        if (index == null) {
+            index = new CrowdinFileIndex();
+        }
+        getLog().debug("Crowdin project contains " + index.size() + " files and folders");
+        return index;
+    }
+
+    protected CrowdinResponse crowdinRequestAPI(String method, Map<String, String> parameters, Map<String, File> files,
+                                         final boolean shallSuccess) throws MojoExecutionException {
+        HttpPost postMethod = new HttpPost(crowdinUri(method));
+
+        MultipartEntityBuilder multipartEntityBuilder = MultipartEntityBuilder.create();
+
+        if (parameters != null) {
+            Set<Entry<String, String>> entrySetParameters = parameters.entrySet();
+            for (Entry<String, String> entryParameter : entrySetParameters) {
+                multipartEntityBuilder.addPart(entryParameter.getKey(), new StringBody(entryParameter.getValue(), ContentType.TEXT_PLAIN));
+            }
+        }
+        if (files != null) {
+            Set<Entry<String, File>> entrySetFiles = files.entrySet();
+            for (Entry<String, File> entryFile : entrySetFiles) {
+                String key = "files[" + entryFile.getKey() + "]";
+                multipartEntityBuilder.addPart(key, new FileBody(entryFile.getValue()));
+            }
+        }
+
+        postMethod.setEntity(multipartEntityBuilder.build());
+
+        // getLog().debug("Sent request : ");
+        // ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        // reqEntity.writeTo(bos);
+        // getLog().debug(bos.toString());
+
+        return crowdinExecute(postMethod, IDEMPOTENT_METHODS.contains(method), new ResponseHandler<CrowdinResponse>() {
+            @Override
+            public CrowdinResponse handle(HttpResponse response) throws Exception {
+                InputStream responseBodyAsStream = response.getEntity().getContent();
+                CrowdinResponse crowdinResponse = CrowdinResponseParser.parse(responseBodyAsStream);
+                EntityUtils.consume(response.getEntity());
+                if (shallSuccess && crowdinResponse.isError()) {
+                    throw new MojoExecutionException("Failed to call API - " + crowdinResponse.getErrorCode() + " - "
+                            + crowdinResponse.getErrorMessage());
+                }
+                return crowdinResponse;
+            }
+        });
+    }
+
+    /**
+     * @return the URI of an API method of the crowdin project
+     */
+    protected String crowdinUri(String method) {
+        return (apiUrl.endsWith("/") ? apiUrl : apiUrl + "/") + authenticationInfo.getUserName() + "/" + method
+                + "?key=" + authenticationInfo.getPassword();
+    }
+
+    /**
+     * Sends a request to crowdin. Transient failures are retried with an exponential backoff if the request is
+     * idempotent, or if crowdin did not process it (connection refused, rate limit).
+     */
+    protected <T> T crowdinExecute(HttpRequestBase request, boolean idempotent, ResponseHandler<T> handler)
+            throws MojoExecutionException {
+        String password = authenticationInfo.getPassword();
+        String uri = request.getURI().toString();
+        getLog().debug("Calling " + (password == null || password.isEmpty() ? uri : uri.replace(password, "?????")));
+        String method = getApiMethod(request);
+        RetryPolicy retryPolicy = new RetryPolicy(retryAttempts, retryDelay, retryMaxDelay, retryTimeout);
+        long deadline = retryPolicy.getDeadline(System.currentTimeMillis());
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            long retryAfter = -1;
+            Exception failure;
+            try {
+                if (!throttle.await(deadline)) {
+                    throw new MojoExecutionException("Failed to call API - requests are rate limited beyond "
+                            + retryTimeout + " ms");
+                }
+                if (attempt > 1) {
+                    request.reset();
+                }
+                metrics.increment("requests");
+                metrics.increment("requests." + method);
+                if (request instanceof HttpEntityEnclosingRequest) {
+                    HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+                    if (entity != null && entity.getContentLength() > 0) {
+                        metrics.add("bytesSent", entity.getContentLength());
+                    }
+                }
+                try (BuildMetrics.Timer ignored = metrics.time("api");
+                     CloseableHttpResponse response = client.execute(request)) {
+                    countReceivedBytes(response);
+                    int returnCode = response.getStatusLine().getStatusCode();
+                    getLog().debug("Return code : " + returnCode);
+                    if (!RetryPolicy.isTransient(returnCode)) {
+                        return handler.handle(response);
+                    }
+                    boolean rateLimited = RetryPolicy.isRateLimited(returnCode);
+                    Header retryAfterHeader = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                    retryAfter = RetryPolicy.parseRetryAfter(
+                            retryAfterHeader == null ? null : retryAfterHeader.getValue(), System.currentTimeMillis());
+                    if (rateLimited) {
+                        throttle.pause(retryAfter >= 0 ? retryAfter : retryPolicy.getDelay(attempt, -1));
+                    }
+                    EntityUtils.consume(response.getEntity());
+                    failure = new IOException("HTTP " + response.getStatusLine());
+                    if (!(idempotent || rateLimited) || !retryPolicy.canRetry(attempt)) {
+                        throw new MojoExecutionException("Failed to call API - " + response.getStatusLine());
+                    }
+                }
+            } catch (MojoExecutionException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while calling API", e);
+            } catch (IOException e) {
+                failure = e;
+                boolean notSent = e instanceof ConnectException || e instanceof ConnectTimeoutException;
+                if (!(idempotent || notSent) || !retryPolicy.canRetry(attempt)) {
+                    throw new MojoExecutionException("Failed to call API", e);
+                }
+            } catch (Exception e) {
+                throw new MojoExecutionException("Failed to call API", e);
+            }
+
+            long delay = retryPolicy.getDelay(attempt, retryAfter);
+            if (System.currentTimeMillis() + delay > deadline) {
+                throw new MojoExecutionException("Failed to call API - no attempt left before " + retryTimeout
+                        + " ms", failure);
+            }
+            getLog().warn("Crowdin request failed (" + failure.getMessage() + "), attempt " + attempt
+                    + ", retrying in " + delay + " ms");
+            metrics.increment("retries");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException("Interrupted while calling API", e);
+            }
+        }
+    }
+
+    /**
+     * @return the API method of a request, such as info or download/all.zip
+     */
+    private String getApiMethod(HttpRequestBase request) {
+        String path = request.getURI().getPath();
+        String project = "/" + authenticationInfo.getUserName() + "/";
+        int index = path.indexOf(project);
+        return index >= 0 ? path.substring(index + project.length()) : path;
+    }
+
+    private void countReceivedBytes(HttpResponse response) {
+        if (response.getEntity() != null) {
+            response.setEntity(new HttpEntityWrapper(response.getEntity()) {
+                @Override
+                public InputStream getContent() throws IOException {
+                    return new ProxyInputStream(super.getContent()) {
+                        @Override
+                        protected void afterRead(int count) {
+                            if (count > 0) {
+                                metrics.add("bytesReceived", count);
+                            }
+                        }
+                    };
+                }
+            });
+        }
+    }
+
+    protected String getMavenId(Artifact artifact) {
+        return artifact.getGroupId() + "." + artifact.getArtifactId();
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.BuildMetrics;
+import com.googlecode.crowdin.maven.tool.SessionMetrics;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * A goal recording its metrics in target/crowdin.
+ */
+public abstract class AbstractMetricsMojo extends AbstractMojo {
+
+    /**
+     * The current Maven project
+     */
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    protected MavenProject project;
+
+    /**
+     * The current build session
+     */
+    @Parameter(defaultValue = "${session}", readonly = true, required = true)
+    protected MavenSession session;
+
+    /**
+     * The directory where the metrics of each goal are written, as crowdin-metrics-&lt;goal&gt;.json.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/crowdin", required = true)
+    protected File metricsDirectory;
+
+    /**
+     * Log a summary of the metrics of all the crowdin goals at the end of the build, or of each goal when the plugin
+     * is not declared with extensions.
+     */
+    @Parameter(property = "crowdinMetricsSummary", defaultValue = "false")
+    protected boolean metricsSummary;
+
+    protected final BuildMetrics metrics = new BuildMetrics();
+
+    /**
+     * Writes the metrics of the goal, and logs their summary if asked to.
+     */
+    protected void reportMetrics(String goal, boolean success) {
+        File metricsFile = new File(metricsDirectory, "crowdin-metrics-" + goal + ".json");
+        try {
+            metrics.write(metricsFile, goal, project == null ? null : project.getId(), success);
+        } catch (IOException e) {
+            getLog().warn("Failed to save " + metricsFile, e);
+        }
+        if (metricsSummary) {
+            SessionMetrics sessionMetrics = SessionMetrics.get(session);
+            if (sessionMetrics != null) {
+                sessionMetrics.add(goal, metrics, success);
+            } else {
+                getLog().info(metrics.getSummary(goal));
+            }
+        }
+    }
+}
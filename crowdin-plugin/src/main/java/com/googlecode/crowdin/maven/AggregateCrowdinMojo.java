@@ -0,0 +1,525 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.bundle.BinaryBundleWriter;
+import com.googlecode.crowdin.maven.tool.AtomicFiles;
+import com.googlecode.crowdin.maven.tool.BuildMetrics;
+import com.googlecode.crowdin.maven.tool.Hashing;
+import com.googlecode.crowdin.maven.tool.ParallelTasks;
+import com.googlecode.crowdin.maven.tool.PropertiesReader;
+import com.googlecode.crowdin.maven.tool.PropertiesWriter;
+import org.apache.maven.model.Resource;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * Aggregate the translations of this project with crowdin
+ */
+@Mojo(name = "aggregate", defaultPhase = LifecyclePhase.GENERATE_RESOURCES, threadSafe = true)
+public class AggregateCrowdinMojo extends AbstractMetricsMojo {
+
+    private static final String DEFAULT_LANG = "en";
+
+    /**
+     * Version of the generated files, part of the fingerprints so that a new format regenerates every language.
+     */
+    private static final String FORMAT = "3";
+
+    public static final String COMMENT = "This file is automatically generated. Please do not edit this file. "
+            + "If you'd like to change the content please use crowdin";
+
+    /**
+     * The directory where the generated resource files will be stored. The
+     * directory will be registered as a resource root of the project such that
+     * the generated files will participate in later build phases like packaing.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/generated-resources/messages-aggregated", required = true)
+    protected File resourceAggregatedOutputDirectory;
+
+    /**
+     * The directory where the messages can be fund.
+     */
+    @Parameter(defaultValue = "${project.basedir}/src/main/crowdin", required = true)
+    protected File messagesOutputDirectory;
+
+    /**
+     * The file where the fingerprints of the aggregated languages are kept between builds.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/crowdin/aggregate.properties", required = true)
+    protected File aggregateStateFile;
+
+    /**
+     * Number of languages aggregated at the same time, 0 for one per available processor.
+     */
+    @Parameter(property = "crowdinAggregateThreads", defaultValue = "0")
+    protected int aggregateThreads;
+
+    /**
+     * Also write each language as an indexed binary bundle ({@code messages_fr.bin}), to be loaded at runtime with
+     * {@code ResourceBundle.getBundle("messages", locale, MappedBundleControl.INSTANCE)}.
+     */
+    @Parameter(property = "crowdinBinaryBundles", defaultValue = "false")
+    protected boolean binaryBundles;
+
+    /**
+     * Write only the entries of each language instead of merging them with the default language. The default
+     * language is then written in the base bundle ({@code messages.properties}) and missing entries are resolved at
+     * runtime through the parent chain of {@link java.util.ResourceBundle}.
+     */
+    @Parameter(property = "crowdinSparseBundles", defaultValue = "false")
+    protected boolean sparseBundles;
+
+    /**
+     * In sparse mode, also drop the entries of a language that are identical to the default language.
+     */
+    @Parameter(property = "crowdinDropDefaultDuplicates", defaultValue = "false")
+    protected boolean dropDefaultDuplicates;
+
+    /**
+     * Merge regional languages with their base language when it is on crowdin ({@code pt_BR} or {@code pt-BR} with
+     * {@code pt}), before the default language. Not used in sparse mode, where the parent chain of
+     * {@link java.util.ResourceBundle} does it at runtime.
+     */
+    @Parameter(property = "crowdinResolveLocaleHierarchy", defaultValue = "true")
+    protected boolean resolveLocaleHierarchy;
+
+    /**
+     * The directory where the language each entry comes from is reported, one file per aggregated language.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/crowdin/coverage", required = true)
+    protected File coverageReportDirectory;
+
+    public void execute() throws MojoExecutionException {
+        boolean success = false;
+        try {
+            aggregate();
+            success = true;
+        } finally {
+            reportMetrics("aggregate", success);
+        }
+    }
+
+    private void aggregate() throws MojoExecutionException {
+        if (messagesOutputDirectory.exists()) {
+            getLog().info("Aggregating all message properties from dependencies");
+
+            String[] langFolders = messagesOutputDirectory.list();
+
+            Map<String, String> previousFingerprints = loadFingerprints();
+            Map<String, String> fingerprints = new TreeMap<>();
+
+            if (langFolders != null) {
+                Arrays.sort(langFolders);
+
+                File defaultFolder = new File(messagesOutputDirectory, DEFAULT_LANG);
+                final String defaultFingerprint = fingerprint(defaultFolder, "");
+                SortedMap<String, String> defaultProperties = null;
+                if (defaultFolder.isDirectory()) {
+                    fingerprints.put(DEFAULT_LANG, defaultFingerprint);
+                    if (isChanged(DEFAULT_LANG, defaultFingerprint, previousFingerprints)) {
+                        List<String> messages = new ArrayList<>();
+                        defaultProperties = aggregatePropertiesFolder(defaultFolder, DEFAULT_LANG, null, null,
+                                messages);
+                        logInfo(messages);
+                    } else {
+                        getLog().info("Properties for lang " + DEFAULT_LANG + " are up to date");
+                        metrics.increment("languages.unchanged");
+                    }
+                }
+
+                // Fingerprint the other languages
+                List<String> langs = new ArrayList<>();
+                List<Callable<String>> fingerprintTasks = new ArrayList<>();
+                for (String langFolder : langFolders) {
+                    if (!langFolder.startsWith(".") && !langFolder.equals(DEFAULT_LANG)) {
+                        final File langFold = new File(messagesOutputDirectory, langFolder);
+                        if (langFold.isDirectory()) {
+                            langs.add(langFolder);
+                            fingerprintTasks.add(new Callable<String>() {
+                                @Override
+                                public String call() throws MojoExecutionException {
+                                    return fingerprint(langFold, defaultFingerprint);
+                                }
+                            });
+                        }
+                    }
+                }
+                List<String> langFingerprints = getValues(runTasks(fingerprintTasks), langs);
+                final Map<String, String> parentLangs = getParentLangs(langs);
+
+                // Aggregate the languages that changed
+                List<String> changedLangs = new ArrayList<>();
+                for (int i = 0; i < langs.size(); i++) {
+                    String lang = langs.get(i);
+                    String langFingerprint = langFingerprints.get(i);
+                    String parentLang = parentLangs.get(lang);
+                    if (parentLang != null) {
+                        langFingerprint = Hashing.sha256(langFingerprint + '\n'
+                                + langFingerprints.get(langs.indexOf(parentLang)));
+                    }
+                    fingerprints.put(lang, langFingerprint);
+                    if (isChanged(lang, langFingerprint, previousFingerprints)) {
+                        changedLangs.add(lang);
+                    } else {
+                        getLog().info("Properties for lang " + lang + " are up to date");
+                        metrics.increment("languages.unchanged");
+                    }
+                }
+                if (!changedLangs.isEmpty()) {
+                    if (defaultProperties == null) {
+                        defaultProperties = new TreeMap<>();
+                        addAllProperties(defaultProperties, defaultFolder, new ArrayList<String>());
+                    }
+                    final SortedMap<String, String> defaults = defaultProperties;
+                    List<Callable<List<String>>> aggregateTasks = new ArrayList<>();
+                    for (final String lang : changedLangs) {
+                        aggregateTasks.add(new Callable<List<String>>() {
+                            @Override
+                            public List<String> call() throws MojoExecutionException {
+                                List<String> messages = new ArrayList<>();
+                                aggregatePropertiesFolder(new File(messagesOutputDirectory, lang), lang,
+                                        parentLangs.get(lang), defaults, messages);
+                                return messages;
+                            }
+                        });
+                    }
+                    for (List<String> messages : getValues(runTasks(aggregateTasks), changedLangs)) {
+                        logInfo(messages);
+                    }
+                }
+            }
+
+            // Remove the languages that are not on crowdin anymore
+            for (String lang : previousFingerprints.keySet()) {
+                if (!fingerprints.containsKey(lang)) {
+                    deleteBundle(lang);
+                    getCoverageFile(lang).delete();
+                }
+            }
+            if (!sparseBundles || !fingerprints.containsKey(DEFAULT_LANG)) {
+                deleteBundle(null);
+            }
+            saveFingerprints(fingerprints);
+
+            Resource resource = new Resource();
+            resource.setDirectory(resourceAggregatedOutputDirectory.getAbsolutePath());
+            this.project.addResource(resource);
+
+        } else {
+            getLog().info("Crowdin folder does not exist (" + messagesOutputDirectory + "). Call pull before.");
+        }
+    }
+
+    private void deleteBundle(String lang) {
+        for (File file : new File[]{getPropertiesFile(lang), getBinaryFile(lang)}) {
+            if (file.delete()) {
+                getLog().info("Deleted " + file);
+            }
+        }
+    }
+
+    /**
+     * @return the base language of each regional language, when both are on crowdin
+     */
+    private Map<String, String> getParentLangs(List<String> langs) {
+        Map<String, String> parentLangs = new HashMap<>();
+        if (resolveLocaleHierarchy && !sparseBundles) {
+            for (String lang : langs) {
+                int separator = toLocaleName(lang).indexOf('_');
+                if (separator > 0 && langs.contains(lang.substring(0, separator))) {
+                    parentLangs.put(lang, lang.substring(0, separator));
+                }
+            }
+        }
+        return parentLangs;
+    }
+
+    private <T> List<ParallelTasks.Result<T>> runTasks(List<Callable<T>> tasks) throws MojoExecutionException {
+        int threads = aggregateThreads > 0 ? aggregateThreads : Runtime.getRuntime().availableProcessors();
+        try {
+            return ParallelTasks.run(tasks, threads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while aggregating properties", e);
+        }
+    }
+
+    /**
+     * @return the values of the results, after reporting all the failures
+     */
+    private <T> List<T> getValues(List<ParallelTasks.Result<T>> results, List<String> langs)
+            throws MojoExecutionException {
+        List<T> values = new ArrayList<>(results.size());
+        Exception failure = null;
+        for (int i = 0; i < results.size(); i++) {
+            ParallelTasks.Result<T> result = results.get(i);
+            if (result.isSuccess()) {
+                values.add(result.getValue());
+            } else {
+                getLog().error("Failed to aggregate properties for lang " + langs.get(i), result.getException());
+                failure = result.getException();
+            }
+        }
+        if (failure != null) {
+            throw new MojoExecutionException("Failed to aggregate properties", failure);
+        }
+        return values;
+    }
+
+    private void logInfo(List<String> messages) {
+        for (String message : messages) {
+            getLog().info(message);
+        }
+    }
+
+    private boolean isChanged(String lang, String fingerprint, Map<String, String> previousFingerprints) {
+        return !fingerprint.equals(previousFingerprints.get(lang)) || !getPropertiesFile(lang).isFile()
+                || binaryBundles && !getBinaryFile(lang).isFile()
+                || sparseBundles && DEFAULT_LANG.equals(lang) && !getPropertiesFile(null).isFile();
+    }
+
+    /**
+     * Fingerprint of the files of a language, and of the default language it is merged with.
+     */
+    private String fingerprint(File langFolder, String defaultFingerprint) throws MojoExecutionException {
+        try (BuildMetrics.Timer ignored = metrics.time("fingerprint")) {
+            return fingerprintLang(langFolder, defaultFingerprint);
+        }
+    }
+
+    private String fingerprintLang(File langFolder, String defaultFingerprint) throws MojoExecutionException {
+        StringBuilder builder = new StringBuilder();
+        builder.append(FORMAT).append(binaryBundles ? "+bin" : "");
+        builder.append(sparseBundles ? dropDefaultDuplicates ? "+sparse-dedup" : "+sparse" : "").append('\n');
+        builder.append(defaultFingerprint).append('\n');
+        fingerprintFiles(builder, langFolder, "");
+        return Hashing.sha256(builder.toString());
+    }
+
+    private void fingerprintFiles(StringBuilder builder, File folder, String path) throws MojoExecutionException {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                if (!file.getName().startsWith(".")) {
+                    if (file.isDirectory()) {
+                        fingerprintFiles(builder, file, path + file.getName() + "/");
+                    } else {
+                        try {
+                            builder.append(path).append(file.getName()).append('=').append(Hashing.sha256(file))
+                                    .append('\n');
+                        } catch (IOException e) {
+                            throw new MojoExecutionException("Failed to read " + file, e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private Map<String, String> loadFingerprints() {
+        Map<String, String> fingerprints = new TreeMap<>();
+        if (aggregateStateFile.isFile()) {
+            try {
+                PropertiesReader.load(aggregateStateFile, fingerprints);
+            } catch (IOException e) {
+                getLog().warn("Failed to read " + aggregateStateFile + ", aggregating all languages", e);
+                fingerprints.clear();
+            }
+        }
+        return fingerprints;
+    }
+
+    private void saveFingerprints(Map<String, String> fingerprints) {
+        try {
+            AtomicFiles.writeIfChanged(aggregateStateFile, PropertiesWriter.content(fingerprints, null));
+        } catch (IOException e) {
+            getLog().warn("Failed to save " + aggregateStateFile, e);
+        }
+    }
+
+    private File getPropertiesFile(String lang) {
+        return getBundleFile(lang, ".properties");
+    }
+
+    private File getBinaryFile(String lang) {
+        return getBundleFile(lang, ".bin");
+    }
+
+    /**
+     * @param lang the language of the bundle, null for the base bundle of the sparse mode
+     */
+    private File getBundleFile(String lang, String extension) {
+        String name = lang == null ? "messages" : "messages_" + toLocaleName(lang);
+        return new File(resourceAggregatedOutputDirectory, name + extension);
+    }
+
+    /**
+     * @return the language as named by {@link java.util.ResourceBundle}, {@code pt_BR} for the {@code pt-BR} of
+     * crowdin
+     */
+    private static String toLocaleName(String lang) {
+        return lang.replace('-', '_');
+    }
+
+    private File getCoverageFile(String lang) {
+        return new File(coverageReportDirectory, lang + ".properties");
+    }
+
+    /**
+     * Aggregates a language, adding log messages to the given list so that they can be logged in order when
+     * languages are aggregated concurrently. Entries are merged in sorted maps: the default language first, then the
+     * base language of a regional language, then the language itself, each one reading the files of the dependencies
+     * in name order. In sparse mode, the default language is written in the base bundle and the other languages only
+     * keep their own entries.
+     *
+     * @return the merged entries of the language
+     */
+    private SortedMap<String, String> aggregatePropertiesFolder(File langFolder, String lang, String parentLang,
+                                                                SortedMap<String, String> defaultProperties,
+                                                                List<String> messages)
+            throws MojoExecutionException {
+        try (BuildMetrics.Timer ignored = metrics.time("aggregate")) {
+            metrics.increment("languages.aggregated");
+            return aggregateLang(langFolder, lang, parentLang, defaultProperties, messages);
+        }
+    }
+
+    /**
+     * Aggregates a language without recording metrics. Visible for benchmarks.
+     */
+    SortedMap<String, String> aggregateLang(File langFolder, String lang, String parentLang,
+                                            SortedMap<String, String> defaultProperties,
+                                            List<String> messages)
+            throws MojoExecutionException {
+        TreeMap<String, String> properties = new TreeMap<>();
+        TreeMap<String, String> sources = new TreeMap<>();
+
+        messages.add("Aggregate properties for lang " + lang);
+        if (defaultProperties != null && !sparseBundles) {
+            merge(properties, sources, defaultProperties, DEFAULT_LANG);
+        }
+        if (parentLang != null) {
+            TreeMap<String, String> parentProperties = new TreeMap<>();
+            addAllProperties(parentProperties, new File(messagesOutputDirectory, parentLang), messages);
+            merge(properties, sources, parentProperties, parentLang);
+        }
+        TreeMap<String, String> langProperties = new TreeMap<>();
+        addAllProperties(langProperties, langFolder, messages);
+        merge(properties, sources, langProperties, lang);
+
+        if (!sparseBundles) {
+            writeBundle(lang, properties, messages);
+        } else if (defaultProperties == null) {
+            writeBundle(null, properties, messages);
+            // Still written so that the lookup of this language does not fall back to the default locale
+            writeBundle(lang, new TreeMap<String, String>(), messages);
+        } else {
+            if (dropDefaultDuplicates) {
+                Iterator<Map.Entry<String, String>> entries = properties.entrySet().iterator();
+                while (entries.hasNext()) {
+                    Map.Entry<String, String> entry = entries.next();
+                    if (entry.getValue().equals(defaultProperties.get(entry.getKey()))) {
+                        entries.remove();
+                        sources.remove(entry.getKey());
+                    }
+                }
+            }
+            writeBundle(lang, properties, messages);
+        }
+        writeCoverage(lang, sources, messages);
+
+        return properties;
+    }
+
+    private static void merge(Map<String, String> properties, Map<String, String> sources,
+                              Map<String, String> entries, String lang) {
+        properties.putAll(entries);
+        for (String key : entries.keySet()) {
+            sources.put(key, lang);
+        }
+    }
+
+    /**
+     * Reports the language each entry comes from, and sums it up in the log.
+     */
+    private void writeCoverage(String lang, Map<String, String> sources, List<String> messages)
+            throws MojoExecutionException {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        counts.put(lang, 0);
+        for (String source : sources.values()) {
+            Integer count = counts.get(source);
+            counts.put(source, count == null ? 1 : count + 1);
+        }
+        StringBuilder summary = new StringBuilder();
+        summary.append("Coverage of lang ").append(lang).append(": ").append(sources.size()).append(" keys");
+        for (Map.Entry<String, Integer> count : counts.entrySet()) {
+            summary.append(", ").append(count.getValue()).append(" from ").append(count.getKey());
+        }
+        messages.add(summary.toString());
+
+        File coverageFile = getCoverageFile(lang);
+        try {
+            AtomicFiles.writeIfChanged(coverageFile, PropertiesWriter.content(sources, null));
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to save " + coverageFile, e);
+        }
+    }
+
+    private void writeBundle(String lang, final SortedMap<String, String> properties, List<String> messages)
+            throws MojoExecutionException {
+        writeIfChanged(getPropertiesFile(lang), PropertiesWriter.content(properties, COMMENT), messages);
+        if (binaryBundles) {
+            // The binary format starts with the offsets of all the entries, so it is built in memory
+            writeIfChanged(getBinaryFile(lang), new AtomicFiles.Content() {
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    out.write(BinaryBundleWriter.toBytes(properties));
+                }
+            }, messages);
+        } else if (getBinaryFile(lang).delete()) {
+            messages.add("Deleted " + getBinaryFile(lang));
+        }
+    }
+
+    private void writeIfChanged(File file, AtomicFiles.Content content, List<String> messages) throws MojoExecutionException {
+        try {
+            if (!AtomicFiles.writeIfChanged(file, content)) {
+                messages.add(file + " did not change");
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to save " + file, e);
+        }
+    }
+
+    private void addAllProperties(Map<String, String> properties, File folder, List<String> messages)
+            throws MojoExecutionException {
+        File[] files = folder.listFiles();
+        if (files != null) {
+            Arrays.sort(files);
+            for (File file : files) {
+                if (!file.getName().startsWith(".")) {
+                    if (file.isDirectory()) {
+                        addAllProperties(properties, file, messages);
+                    } else {
+                        messages.add("Adding " + file);
+                        metrics.increment("files.read");
+                        try {
+                            PropertiesReader.load(file, properties);
+                        } catch (IOException e) {
+                            throw new MojoExecutionException("Failed to load " + file, e);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
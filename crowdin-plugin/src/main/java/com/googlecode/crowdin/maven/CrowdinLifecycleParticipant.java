@@ -0,0 +1,40 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.SessionCloser;
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.execution.MavenSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Closes what the crowdin goals keep for the whole build when it ends: the metrics summary is logged and the pooled
+ * HTTP connections are closed. Maven only calls it when the plugin is declared with
+ * {@code <extensions>true</extensions>}.
+ */
+@Named("crowdin")
+@Singleton
+public class CrowdinLifecycleParticipant extends AbstractMavenLifecycleParticipant {
+
+    private final Logger logger = LoggerFactory.getLogger(CrowdinLifecycleParticipant.class);
+
+    @Override
+    public void afterProjectsRead(MavenSession session) {
+        SessionCloser.open(session);
+    }
+
+    @Override
+    public void afterSessionEnd(MavenSession session) {
+        for (Closeable closeable : SessionCloser.close(session)) {
+            try {
+                closeable.close();
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Failed to close " + closeable, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.BuildMetrics;
+import com.googlecode.crowdin.maven.tool.CrowdinResponse;
+import com.googlecode.crowdin.maven.tool.CrowdinResponseParser;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Export crowdin translations in this project, for a fresh translation file
+ */
+@Mojo(name = "export", aggregator = true, threadSafe = true)
+public class ExportCrowdinMojo extends AbstractCrowdinMojo {
+
+	private static final String STATUS_FINISHED = "finished";
+
+	private static final String STATUS_IN_PROGRESS = "in-progress";
+
+	/**
+	 * Start the export in the background on crowdin, and poll its status until it is finished.
+	 */
+	@Parameter(property = "crowdinExportAsync", defaultValue = "false")
+	protected boolean exportAsync;
+
+	/**
+	 * Skip the export if the last one finished less than this number of seconds ago, 0 to always export.
+	 */
+	@Parameter(property = "crowdinExportMaxAge", defaultValue = "0")
+	protected long exportMaxAge;
+
+	/**
+	 * Maximum time in milliseconds to wait for an asynchronous export to finish.
+	 */
+	@Parameter(property = "crowdinExportTimeout", defaultValue = "1800000")
+	protected long exportTimeout;
+
+	/**
+	 * First delay in milliseconds between two status requests of an asynchronous export, doubled up to
+	 * crowdinRetryMaxDelay.
+	 */
+	@Parameter(property = "crowdinExportPollInterval", defaultValue = "2000")
+	protected long exportPollInterval;
+
+	@Override
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		super.execute();
+		boolean success = false;
+		try {
+			export();
+			success = true;
+		} finally {
+			reportMetrics("export", success);
+		}
+	}
+
+	private void export() throws MojoExecutionException {
+		if (exportMaxAge > 0) {
+			CrowdinResponse exportStatus = crowdinRequestAPI("export-status", null, null, true);
+			if (STATUS_IN_PROGRESS.equals(exportStatus.getValue("status"))) {
+				getLog().info("An export is already running on crowdin");
+				waitForExport();
+				return;
+			}
+			Date lastBuild = parseDate(exportStatus.getValue("last_build"));
+			if (lastBuild != null && System.currentTimeMillis() - lastBuild.getTime() < exportMaxAge * 1000) {
+				getLog().info("Translations were exported on " + lastBuild + ", skipping export");
+				metrics.increment("exports.skipped");
+				return;
+			}
+		}
+
+		getLog().info("Asking crowdin to export translations");
+
+		// Post doesn't work ?
+		// crowdinRequestAPI("export", null, null, true);
+		HttpGet getMethod = new HttpGet(crowdinUri("export") + (exportAsync ? "&async=1" : ""));
+		metrics.increment("exports");
+		// Not retried once sent, as crowdin may have started the export
+		CrowdinResponse export = crowdinExecute(getMethod, false, new ResponseHandler<CrowdinResponse>() {
+			@Override
+			public CrowdinResponse handle(HttpResponse response) throws Exception {
+				if (response.getStatusLine().getStatusCode() != 200) {
+					EntityUtils.consume(response.getEntity());
+					throw new MojoExecutionException("Failed to export translations from crowdin");
+				}
+				CrowdinResponse crowdinResponse = CrowdinResponseParser.parse(response.getEntity().getContent());
+				EntityUtils.consume(response.getEntity());
+				return crowdinResponse;
+			}
+		});
+		if (export.isError()) {
+			throw new MojoExecutionException("Failed to export translations from crowdin - "
+					+ export.getErrorCode() + " - " + export.getErrorMessage());
+		}
+
+		if (STATUS_IN_PROGRESS.equals(export.getStatus())) {
+			waitForExport();
+		} else {
+			getLog().info("Export " + (export.getStatus() == null ? "done" : export.getStatus()));
+		}
+	}
+
+	/**
+	 * Polls the status of the export, waiting longer between each request, until it is finished.
+	 */
+	private void waitForExport() throws MojoExecutionException {
+		try (BuildMetrics.Timer ignored = metrics.time("wait")) {
+			pollExport();
+		}
+	}
+
+	private void pollExport() throws MojoExecutionException {
+		long deadline = System.currentTimeMillis() + exportTimeout;
+		long delay = exportPollInterval;
+		while (true) {
+			if (System.currentTimeMillis() + delay > deadline) {
+				throw new MojoExecutionException("Export did not finish on crowdin in " + exportTimeout + " ms");
+			}
+			try {
+				Thread.sleep(delay);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new MojoExecutionException("Interrupted while waiting for export", e);
+			}
+			CrowdinResponse exportStatus = crowdinRequestAPI("export-status", null, null, true);
+			metrics.increment("polls");
+			String status = exportStatus.getValue("status");
+			if (STATUS_FINISHED.equals(status)) {
+				getLog().info("Export finished");
+				return;
+			} else if (!STATUS_IN_PROGRESS.equals(status)) {
+				throw new MojoExecutionException("Unexpected export status " + status);
+			}
+			getLog().info("Export in progress (" + exportStatus.getValue("progress") + "%)");
+			delay = Math.min(delay * 2, Math.max(exportPollInterval, retryMaxDelay));
+		}
+	}
+
+	/**
+	 * @return the date of a crowdin response (2013-01-31T13:33:14+0000), or null if there is none
+	 */
+	private Date parseDate(String date) {
+		if (date == null || date.isEmpty()) {
+			return null;
+		}
+		try {
+			return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").parse(date);
+		} catch (ParseException e) {
+			getLog().debug("Unknown date format " + date);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,795 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.ArchiveCache;
+import com.googlecode.crowdin.maven.tool.AtomicFiles;
+import com.googlecode.crowdin.maven.tool.BuildMetrics;
+import com.googlecode.crowdin.maven.tool.Hashing;
+import com.googlecode.crowdin.maven.tool.ParallelTasks;
+import com.googlecode.crowdin.maven.tool.PullState;
+import com.googlecode.crowdin.maven.tool.PropertiesReader;
+import com.googlecode.crowdin.maven.tool.PropertiesWriter;
+import com.googlecode.crowdin.maven.tool.SpecialArtifact;
+import com.googlecode.crowdin.maven.tool.TranslationFile;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.util.EntityUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.artifact.resolver.filter.ScopeArtifactFilter;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Exclusion;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilderException;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.traversal.CollectingDependencyNodeVisitor;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Pull crowdin translations in this project, looking dependencies
+ */
+@Mojo(name = "pull", threadSafe = true)
+public class PullCrowdinMojo extends AbstractCrowdinMojo {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String STATE_FILE = ".crowdin-pull";
+
+    @Component
+    protected DependencyGraphBuilder dependencyGraphBuilder;
+
+    /**
+     * Number of stale files deleted at the same time.
+     */
+    @Parameter(property = "crowdinCleanThreads", defaultValue = "4")
+    protected int cleanThreads;
+
+    /**
+     * The file where the dependencies of the project are kept between builds, with the fingerprint of the model they
+     * were resolved from.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/crowdin/dependencies.properties", required = true)
+    protected File dependenciesCacheFile;
+
+    /**
+     * The languages to pull, each one from its own archive instead of all.zip. Translations of the other languages
+     * are deleted.
+     */
+    @Parameter(property = "crowdinLanguages")
+    protected List<String> languages;
+
+    /**
+     * Pull each language from its own archive, the languages being those of the crowdin project when none are
+     * configured. Only the languages that changed since the previous pull are extracted.
+     */
+    @Parameter(property = "crowdinPullPerLanguage", defaultValue = "false")
+    protected boolean pullPerLanguage;
+
+    /**
+     * Number of languages downloaded at the same time when pulling per language.
+     */
+    @Parameter(property = "crowdinPullThreads", defaultValue = "4")
+    protected int pullThreads;
+
+    /**
+     * Download each archive once per build and keep it with its validators in the archive cache directory, where it
+     * is shared by the modules of the reactor and by later builds, which only download it again when it changed on
+     * crowdin. When disabled, each module downloads the archives itself.
+     */
+    @Parameter(property = "crowdinShareArchives", defaultValue = "true")
+    protected boolean shareArchives;
+
+    /**
+     * The directory where shared archives are kept.
+     */
+    @Parameter(property = "crowdinArchiveCacheDirectory", defaultValue = "${settings.localRepository}/.cache/crowdin",
+            required = true)
+    protected File archiveCacheDirectory;
+
+    /**
+     * Deletes the files and folders of the crowdin folder that are not in the given translations, except in the
+     * kept languages. Folders that are entirely stale are deleted as a whole, deletions run in parallel and all
+     * failures are reported.
+     */
+    private void cleanFolders(Set<TranslationFile> translationFiles, Set<String> keptLanguages)
+            throws MojoExecutionException {
+        File[] languageFolders = messagesOutputDirectory.listFiles();
+        if (languageFolders == null) {
+            return;
+        }
+        // language -> mavenId -> names
+        Map<String, Map<String, Set<String>>> index = new HashMap<>();
+        for (TranslationFile translationFile : translationFiles) {
+            Map<String, Set<String>> mavenIds = index.get(translationFile.getLanguage());
+            if (mavenIds == null) {
+                mavenIds = new HashMap<>();
+                index.put(translationFile.getLanguage(), mavenIds);
+            }
+            Set<String> names = mavenIds.get(translationFile.getMavenId());
+            if (names == null) {
+                names = new HashSet<>();
+                mavenIds.put(translationFile.getMavenId(), names);
+            }
+            names.add(translationFile.getName());
+        }
+
+        List<File> staleFiles = new ArrayList<>();
+        for (File languageFolder : languageFolders) {
+            if (!languageFolder.getName().startsWith(".") && languageFolder.isDirectory()
+                    && !keptLanguages.contains(languageFolder.getName())) {
+                Map<String, Set<String>> mavenIds = index.get(languageFolder.getName());
+                if (mavenIds == null) {
+                    staleFiles.add(languageFolder);
+                    continue;
+                }
+                File[] mavenIdFolders = languageFolder.listFiles();
+                if (mavenIdFolders != null) {
+                    for (File mavenIdFolder : mavenIdFolders) {
+                        if (!mavenIdFolder.getName().startsWith(".") && mavenIdFolder.isDirectory()) {
+                            Set<String> names = mavenIds.get(mavenIdFolder.getName());
+                            if (names == null) {
+                                staleFiles.add(mavenIdFolder);
+                            } else {
+                                diffFolder(mavenIdFolder, "", names, staleFiles);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        deleteAll(staleFiles);
+    }
+
+    /**
+     * Adds the stale files of a folder of a dependency to the given list.
+     *
+     * @return true if nothing in the folder is expected, the folder itself being stale
+     */
+    private boolean diffFolder(File folder, String path, Set<String> names, List<File> staleFiles) {
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return false;
+        }
+        boolean allStale = true;
+        List<File> stale = new ArrayList<>();
+        for (File file : files) {
+            String name = path + file.getName();
+            if (file.getName().startsWith(".")) {
+                allStale = false;
+            } else if (file.isDirectory()) {
+                if (diffFolder(file, name + "/", names, stale)) {
+                    stale.add(file);
+                } else {
+                    allStale = false;
+                }
+            } else if (!names.contains(name)) {
+                stale.add(file);
+            } else {
+                allStale = false;
+            }
+        }
+        if (allStale && !path.isEmpty()) {
+            return true;
+        }
+        staleFiles.addAll(stale);
+        return false;
+    }
+
+    private void deleteAll(List<File> staleFiles) throws MojoExecutionException {
+        if (staleFiles.isEmpty()) {
+            return;
+        }
+        List<Callable<Void>> deletions = new ArrayList<>(staleFiles.size());
+        for (final File staleFile : staleFiles) {
+            deletions.add(new Callable<Void>() {
+                @Override
+                public Void call() throws IOException {
+                    delete(staleFile);
+                    return null;
+                }
+            });
+        }
+        List<ParallelTasks.Result<Void>> results;
+        try {
+            results = ParallelTasks.run(deletions, cleanThreads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while cleaning crowdin folder", e);
+        }
+        int failures = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).isSuccess()) {
+                getLog().info("Deleted " + staleFiles.get(i));
+                metrics.increment("files.deleted");
+            } else {
+                getLog().error(results.get(i).getException().getMessage());
+                failures++;
+            }
+        }
+        if (failures > 0) {
+            throw new MojoExecutionException("Failed to delete " + failures + " stale files of "
+                    + messagesOutputDirectory);
+        }
+    }
+
+    private static void delete(File file) throws IOException {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        if (!file.delete() && file.exists()) {
+            throw new IOException("Failed to delete " + file);
+        }
+    }
+
+    /**
+     * Downloads an archive and extracts the translations of the given dependencies.
+     *
+     * @param language the language of the archive, null for all.zip
+     * @return the extracted translations, or null if the archive did not change since the previous pull
+     */
+    private Set<TranslationFile> downloadTranslations(String language, Set<String> mavenIds,
+                                                      PullState previousState, PullState state)
+            throws MojoExecutionException {
+        File archive;
+        if (shareArchives) {
+            archive = getSharedArchive(language, state);
+        } else {
+            // Spool the archive so that only the entries of dependencies are decompressed
+            try {
+                archive = File.createTempFile("crowdin", ".zip");
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to create a temporary file", e);
+            }
+            if (!requestArchive(language, previousState, state, archive)) {
+                archive.delete();
+                archive = null;
+            }
+        }
+        if (archive == null) {
+            metrics.increment("archives.unchanged");
+            return null;
+        }
+        try {
+            if (previousState.sameContent(state)) {
+                metrics.increment("archives.unchanged");
+                return null;
+            }
+            try (BuildMetrics.Timer ignored = metrics.time("extract")) {
+                return extractTranslations(archive, language, mavenIds);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to read translations from crowdin", e);
+        } finally {
+            if (!shareArchives) {
+                archive.delete();
+            }
+        }
+    }
+
+    /**
+     * Returns the archive downloaded for the whole build, downloading it if this is the first module to ask for it.
+     * The archive is shared, it must not be deleted.
+     */
+    private File getSharedArchive(final String language, PullState state) throws MojoExecutionException {
+        String key = authenticationInfo.getUserName() + "-" + (language == null ? "all" : language);
+        final boolean[] downloaded = new boolean[1];
+        ArchiveCache.Archive archive;
+        try {
+            archive = ArchiveCache.get(session, key, archiveCacheDirectory, new ArchiveCache.Downloader() {
+                @Override
+                public PullState download(PullState previous, File target) throws MojoExecutionException {
+                    downloaded[0] = true;
+                    PullState state = new PullState();
+                    return requestArchive(language, previous, state, target) ? state : null;
+                }
+            });
+        } catch (MojoExecutionException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new MojoExecutionException("Failed to get translations from crowdin", e);
+        }
+        if (!downloaded[0]) {
+            getLog().info("Using translations downloaded by another module");
+            metrics.increment("archives.shared");
+        }
+        state.setEtag(archive.getState().getEtag());
+        state.setLastModified(archive.getState().getLastModified());
+        state.setContentHash(archive.getState().getContentHash());
+        state.setContentLength(archive.getState().getContentLength());
+        return archive.getFile();
+    }
+
+    /**
+     * Downloads an archive in the given file, unless it did not change since it was downloaded with the given
+     * validators.
+     *
+     * @return false if the archive did not change
+     */
+    private boolean requestArchive(String language, PullState validators, final PullState state, final File archive)
+            throws MojoExecutionException {
+        HttpGet getMethod = new HttpGet(crowdinUri("download/" + (language == null ? "all" : language) + ".zip"));
+        if (validators.getEtag() != null) {
+            getMethod.setHeader(HttpHeaders.IF_NONE_MATCH, validators.getEtag());
+        }
+        if (validators.getLastModified() != null) {
+            getMethod.setHeader(HttpHeaders.IF_MODIFIED_SINCE, validators.getLastModified());
+        }
+        try (BuildMetrics.Timer ignored = metrics.time("download")) {
+            return crowdinExecute(getMethod, true, new ResponseHandler<Boolean>() {
+                @Override
+                public Boolean handle(HttpResponse response) throws Exception {
+                    int returnCode = response.getStatusLine().getStatusCode();
+                    if (returnCode == HttpStatus.SC_NOT_MODIFIED) {
+                        EntityUtils.consume(response.getEntity());
+                        return false;
+                    } else if (returnCode == HttpStatus.SC_OK) {
+                        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+                        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+                        state.setEtag(etag == null ? null : etag.getValue());
+                        state.setLastModified(lastModified == null ? null : lastModified.getValue());
+                        spoolArchive(response.getEntity().getContent(), archive, state);
+                        return true;
+                    } else {
+                        throw new MojoExecutionException("Failed to get translations from crowdin");
+                    }
+                }
+            });
+        }
+    }
+
+    private void spoolArchive(InputStream in, File archive, PullState state) throws IOException {
+        MessageDigest digest = Hashing.sha256();
+        long length = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (OutputStream out = new FileOutputStream(archive)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                length += read;
+            }
+        }
+        state.setContentHash(Hashing.toHex(digest.digest()));
+        state.setContentLength(length);
+    }
+
+    /**
+     * Extracts the entries of the given dependencies. Entries are looked up in the central directory of the
+     * archive, other entries are never read. Visible for benchmarks.
+     *
+     * @param language the language of the archive, added to the names of its entries if they do not start with it
+     */
+    Set<TranslationFile> extractTranslations(File archive, String language, Set<String> mavenIds)
+            throws IOException, MojoExecutionException {
+        Set<TranslationFile> translations = new HashSet<>();
+        int written = 0;
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    String name = entry.getName();
+                    if (language != null && !name.startsWith(language + "/")) {
+                        name = language + "/" + name;
+                    }
+                    TranslationFile translationFile = getTranslationFile(name, mavenIds);
+                    if (translationFile != null) {
+                        try (InputStream in = new BufferedInputStream(zipFile.getInputStream(entry), BUFFER_SIZE)) {
+                            if (copyTranslation(translationFile, in)) {
+                                written++;
+                            }
+                        }
+                        translations.add(translationFile);
+                    }
+                }
+            }
+        }
+        getLog().info((language == null ? "" : language + ": ") + written + " translation files updated, "
+                + (translations.size() - written) + " unchanged");
+        metrics.add("files.updated", written);
+        metrics.add("files.unchanged", translations.size() - written);
+        return translations;
+    }
+
+    /**
+     * @return the translation file of the entry, or null if the entry is not a translation of a dependency
+     */
+    private TranslationFile getTranslationFile(String name, Set<String> mavenIds) {
+        int slash = name.indexOf('/');
+        if (slash == -1) {
+            return null;
+        }
+        int mavenIdSlash = name.indexOf('/', slash + 1);
+        if (mavenIdSlash > slash + 1) {
+            String mavenId = name.substring(slash + 1, mavenIdSlash);
+            if (!mavenIds.contains(mavenId)) {
+                getLog().debug("Skipping " + name + ", " + mavenId + " is not a dependency");
+                return null;
+            }
+            getLog().debug("Processing " + name);
+            return new TranslationFile(name.substring(0, slash), mavenId, name.substring(mavenIdSlash + 1));
+        }
+        return null;
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        super.execute();
+        boolean success = false;
+        try {
+            pull();
+            success = true;
+        } finally {
+            reportMetrics("pull", success);
+        }
+    }
+
+    private void pull() throws MojoExecutionException {
+        if (messagesInputDirectory.exists()) {
+            Set<String> mavenIds;
+            try (BuildMetrics.Timer ignored = metrics.time("dependencies")) {
+                mavenIds = getDependencyMavenIds();
+            }
+
+            if (pullPerLanguage || languages != null && !languages.isEmpty()) {
+                pullLanguages(mavenIds);
+                return;
+            }
+
+            File stateFile = new File(messagesOutputDirectory, STATE_FILE);
+            PullState previousState = loadState(stateFile);
+            PullState state = new PullState();
+            state.setDependencies(Hashing.sha256(new TreeSet<>(mavenIds).toString()));
+            if (force || !state.getDependencies().equals(previousState.getDependencies())) {
+                previousState = new PullState();
+            }
+
+            getLog().info("Downloading translations from crowdin.");
+            Set<TranslationFile> translations = downloadTranslations(null, mavenIds, previousState, state);
+
+            if (translations == null) {
+                getLog().info("Translations did not change on crowdin since last pull.");
+                return;
+            }
+            // Languages pulled on their own are overwritten or deleted
+            deleteStates(Collections.singleton(STATE_FILE));
+            if (translations.size() == 0) {
+                getLog().info("No translations available for this project!");
+            } else {
+                getLog().info("Cleaning crowdin folder.");
+                try (BuildMetrics.Timer ignored = metrics.time("clean")) {
+                    cleanFolders(translations, Collections.<String>emptySet());
+                }
+            }
+
+            try {
+                state.save(stateFile);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to save " + stateFile, e);
+            }
+        } else {
+            getLog().info(messagesInputDirectory.getPath() + " not found - skipping pull");
+        }
+    }
+
+    /**
+     * Downloads and extracts the archive of each language on a bounded number of threads. Languages that did not
+     * change, or that failed, are left as they are.
+     */
+    private void pullLanguages(final Set<String> mavenIds) throws MojoExecutionException {
+        List<String> langs = languages;
+        if (langs == null || langs.isEmpty()) {
+            langs = crowdinRequestAPI("status", null, null, true).getLanguages();
+        }
+        final String dependencies = Hashing.sha256(new TreeSet<>(mavenIds).toString());
+
+        List<Callable<LanguagePull>> tasks = new ArrayList<>(langs.size());
+        for (final String language : langs) {
+            tasks.add(new Callable<LanguagePull>() {
+                @Override
+                public LanguagePull call() throws MojoExecutionException {
+                    LanguagePull pull = new LanguagePull(language);
+                    PullState previousState = loadState(pull.getStateFile());
+                    pull.state.setDependencies(dependencies);
+                    if (force || !dependencies.equals(previousState.getDependencies())) {
+                        previousState = new PullState();
+                    }
+                    getLog().info("Downloading translations of " + language + " from crowdin.");
+                    pull.translations = downloadTranslations(language, mavenIds, previousState, pull.state);
+                    return pull;
+                }
+            });
+        }
+        List<ParallelTasks.Result<LanguagePull>> results;
+        try {
+            results = ParallelTasks.run(tasks, pullThreads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while pulling translations", e);
+        }
+
+        Set<TranslationFile> translations = new HashSet<>();
+        Set<String> keptLanguages = new HashSet<>();
+        List<LanguagePull> pulled = new ArrayList<>();
+        Exception failure = null;
+        for (int i = 0; i < results.size(); i++) {
+            ParallelTasks.Result<LanguagePull> result = results.get(i);
+            if (!result.isSuccess()) {
+                getLog().error("Failed to pull translations of " + langs.get(i), result.getException());
+                keptLanguages.add(langs.get(i));
+                failure = result.getException();
+            } else if (result.getValue().translations == null) {
+                getLog().info("Translations of " + langs.get(i) + " did not change on crowdin since last pull.");
+                metrics.increment("languages.unchanged");
+                keptLanguages.add(langs.get(i));
+            } else {
+                translations.addAll(result.getValue().translations);
+                metrics.increment("languages.pulled");
+                pulled.add(result.getValue());
+            }
+        }
+
+        // The folders of the other languages are deleted, as well as the languages missing from all.zip
+        Set<String> stateFiles = new HashSet<>();
+        for (String language : langs) {
+            stateFiles.add(new LanguagePull(language).getStateFile().getName());
+        }
+        deleteStates(stateFiles);
+
+        getLog().info("Cleaning crowdin folder.");
+        try (BuildMetrics.Timer ignored = metrics.time("clean")) {
+            cleanFolders(translations, keptLanguages);
+        }
+
+        for (LanguagePull pull : pulled) {
+            try {
+                pull.state.save(pull.getStateFile());
+            } catch (IOException e) {
+                throw new MojoExecutionException("Failed to save " + pull.getStateFile(), e);
+            }
+        }
+        if (failure != null) {
+            throw new MojoExecutionException("Failed to pull translations", failure);
+        }
+    }
+
+    /**
+     * The pull of one language.
+     */
+    private class LanguagePull {
+        private final String language;
+        private final PullState state = new PullState();
+        private Set<TranslationFile> translations;
+
+        LanguagePull(String language) {
+            this.language = language;
+        }
+
+        File getStateFile() {
+            return new File(messagesOutputDirectory, STATE_FILE + "-" + language);
+        }
+    }
+
+    /**
+     * Deletes the pull states that do not match the translations of the crowdin folder anymore, so that the
+     * translations they were recorded for are downloaded again instead of being considered up to date.
+     *
+     * @param keptStateFiles the names of the states to keep
+     */
+    private void deleteStates(Set<String> keptStateFiles) throws MojoExecutionException {
+        File[] files = messagesOutputDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if ((name.equals(STATE_FILE) || name.startsWith(STATE_FILE + "-")) && !keptStateFiles.contains(name)) {
+                getLog().debug("Deleting " + file);
+                if (!file.delete() && file.exists()) {
+                    throw new MojoExecutionException("Failed to delete " + file);
+                }
+            }
+        }
+    }
+
+    private PullState loadState(File stateFile) {
+        try {
+            return PullState.load(stateFile);
+        } catch (IOException e) {
+            getLog().warn("Failed to read " + stateFile + ", pulling all translations", e);
+            return new PullState();
+        }
+    }
+
+    /**
+     * Writes a single archive entry to its target file. The entry is read from the archive stream up to its end,
+     * so only one file is held in memory at a time. Files with the same content are not written again, so that they
+     * keep their timestamp.
+     *
+     * @return true if the file was written
+     */
+    private boolean copyTranslation(TranslationFile translationFile, InputStream inStream)
+            throws MojoExecutionException {
+        TreeMap<String, String> properties = new TreeMap<>();
+        File targetFile = new File(messagesOutputDirectory, translationFile.getLanguage() + "/"
+                + translationFile.getMavenId() + "/" + translationFile.getName());
+        try {
+            PropertiesReader.load(inStream, properties);
+
+            String path = translationFile.getLanguage() + "/" + translationFile.getMavenId() + "/"
+                    + translationFile.getName();
+            if (AtomicFiles.writeIfChanged(targetFile,
+                    PropertiesWriter.content(properties, AggregateCrowdinMojo.COMMENT))) {
+                getLog().info("Importing from crowdin " + path);
+                return true;
+            }
+            getLog().debug(path + " did not change");
+            return false;
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to write " + targetFile, e);
+        }
+    }
+
+    /**
+     * The mavenIds of the project and of its compile dependencies. The dependency graph is only built when the
+     * dependencies of the project changed since the previous pull.
+     */
+    private Set<String> getDependencyMavenIds() throws MojoExecutionException {
+        Set<String> mavenIds = new HashSet<>();
+        String fingerprint = getDependenciesFingerprint();
+        if (fingerprint != null && !force && dependenciesCacheFile.isFile()) {
+            try {
+                Map<String, String> cache = PropertiesReader.load(dependenciesCacheFile);
+                if (fingerprint.equals(cache.get("fingerprint")) && cache.get("mavenIds") != null) {
+                    getLog().debug("Using dependencies of " + dependenciesCacheFile);
+                    mavenIds.addAll(Arrays.asList(cache.get("mavenIds").split(",")));
+                    return mavenIds;
+                }
+            } catch (IOException e) {
+                getLog().warn("Failed to read " + dependenciesCacheFile + ", resolving dependencies", e);
+            }
+        }
+
+        for (Artifact artifact : getAllDependencies()) {
+            mavenIds.add(getMavenId(artifact));
+        }
+
+        if (fingerprint != null) {
+            Map<String, String> cache = new TreeMap<>();
+            cache.put("fingerprint", fingerprint);
+            StringBuilder builder = new StringBuilder();
+            for (String mavenId : new TreeSet<>(mavenIds)) {
+                builder.append(builder.length() == 0 ? "" : ",").append(mavenId);
+            }
+            cache.put("mavenIds", builder.toString());
+            try {
+                AtomicFiles.writeIfChanged(dependenciesCacheFile, PropertiesWriter.content(cache, null));
+            } catch (IOException e) {
+                getLog().warn("Failed to save " + dependenciesCacheFile, e);
+            }
+        }
+        return mavenIds;
+    }
+
+    /**
+     * Fingerprint of the effective dependencies of the project and of the projects of the reactor, which the
+     * dependency graph is built from.
+     *
+     * @return the fingerprint, or null if the graph may change without the model changing: version ranges and
+     * snapshots that are not built by the reactor
+     */
+    private String getDependenciesFingerprint() {
+        Set<String> reactorIds = new HashSet<>();
+        for (MavenProject reactorProject : session.getProjects()) {
+            reactorIds.add(reactorProject.getGroupId() + ":" + reactorProject.getArtifactId());
+        }
+        StringBuilder builder = new StringBuilder();
+        for (MavenProject reactorProject : session.getProjects()) {
+            if (!isStable(reactorProject, reactorIds)) {
+                return null;
+            }
+            fingerprintProject(builder, reactorProject);
+        }
+        if (!isStable(project, reactorIds)) {
+            return null;
+        }
+        fingerprintProject(builder, project);
+        return Hashing.sha256(builder.toString());
+    }
+
+    /**
+     * @return false if a dependency or a managed dependency of the project may resolve differently without the
+     * model changing
+     */
+    private boolean isStable(MavenProject fingerprintedProject, Set<String> reactorIds) {
+        List<Dependency> dependencies = new ArrayList<>(getDependencies(fingerprintedProject));
+        if (fingerprintedProject.getDependencyManagement() != null) {
+            dependencies.addAll(fingerprintedProject.getDependencyManagement().getDependencies());
+        }
+        for (Dependency dependency : dependencies) {
+            String version = dependency.getVersion();
+            if (version == null || version.startsWith("[") || version.startsWith("(")
+                    || ArtifactUtils.isSnapshot(version)
+                    && !reactorIds.contains(dependency.getGroupId() + ":" + dependency.getArtifactId())) {
+                getLog().debug("Dependency " + dependency.getManagementKey() + ":" + version + " of "
+                        + fingerprintedProject.getId() + " may change, not caching dependencies");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void fingerprintProject(StringBuilder builder, MavenProject project) {
+        builder.append(project.getId()).append('\n');
+        fingerprintDependencies(builder, "dependency", getDependencies(project));
+        if (project.getDependencyManagement() != null) {
+            fingerprintDependencies(builder, "managed", project.getDependencyManagement().getDependencies());
+        }
+    }
+
+    private static void fingerprintDependencies(StringBuilder builder, String kind, List<Dependency> dependencies) {
+        for (Dependency dependency : dependencies) {
+            builder.append(kind).append(' ').append(dependency.getManagementKey()).append(':')
+                    .append(dependency.getVersion()).append(':').append(dependency.getScope()).append(':')
+                    .append(dependency.isOptional());
+            for (Exclusion exclusion : dependency.getExclusions()) {
+                builder.append(" -").append(exclusion.getGroupId()).append(':').append(exclusion.getArtifactId());
+            }
+            builder.append('\n');
+        }
+    }
+
+    /**
+     * The dependencies of the project, which the MavenProject of maven-project 2.2.1 returns as a raw list.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Dependency> getDependencies(MavenProject project) {
+        return project.getDependencies();
+    }
+
+    private Set<Artifact> getAllDependencies() throws MojoExecutionException {
+        Set<Artifact> result = new HashSet<>();
+        try {
+            ArtifactFilter artifactFilter = new ScopeArtifactFilter(DefaultArtifact.SCOPE_COMPILE);
+
+            ProjectBuildingRequest buildingRequest =
+                    new DefaultProjectBuildingRequest(session.getProjectBuildingRequest());
+
+            DependencyNode rootNode = dependencyGraphBuilder.buildDependencyGraph(buildingRequest, artifactFilter);
+
+            CollectingDependencyNodeVisitor visitor = new CollectingDependencyNodeVisitor();
+
+            rootNode.accept(visitor);
+
+            List<DependencyNode> nodes = visitor.getNodes();
+            for (DependencyNode dependencyNode : nodes) {
+                result.add(new SpecialArtifact(dependencyNode.getArtifact()));
+            }
+        } catch (DependencyGraphBuilderException e) {
+            throw new MojoExecutionException("Failed to get dependencies", e);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,391 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.BuildMetrics;
+import com.googlecode.crowdin.maven.tool.CrowdinFileIndex;
+import com.googlecode.crowdin.maven.tool.CrowdinNode;
+import com.googlecode.crowdin.maven.tool.Hashing;
+import com.googlecode.crowdin.maven.tool.ParallelTasks;
+import com.googlecode.crowdin.maven.tool.PushManifest;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+
+/**
+ * Push Maven translations of this project in crowdin
+ */
+@Mojo(name = "push", threadSafe = true)
+public class PushCrowdinMojo extends AbstractCrowdinMojo {
+
+    /**
+     * Also push files whose last_revision on crowdin changed since the previous push, even if they did not change
+     * locally, so that files pushed from another branch or machine are pushed again.
+     */
+    @Parameter(property = "crowdinCheckRevision", defaultValue = "true")
+    protected boolean checkRemoteRevision;
+
+    /**
+     * The file where the content hashes and crowdin revisions of the pushed files are recorded.
+     */
+    @Parameter(defaultValue = "${project.build.directory}/crowdin/push.properties", required = true)
+    protected File manifestFile;
+
+    /**
+     * Maximum number of files sent in a single add-file or update-file request.
+     */
+    @Parameter(property = "crowdinFilesPerRequest", defaultValue = "20")
+    protected int filesPerRequest;
+
+    /**
+     * Number of requests sent to crowdin at the same time while pushing.
+     */
+    @Parameter(property = "crowdinPushThreads", defaultValue = "4")
+    protected int pushThreads;
+
+    private void crowdinCreateFolder(String folderName) throws MojoExecutionException {
+        getLog().info("Creating " + folderName + " folder on crowdin");
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("name", folderName);
+        crowdinRequestAPI("add-directory", parameters, null, true);
+    }
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        super.execute();
+        boolean success = false;
+        try {
+            push(getPushedModules());
+            success = true;
+        } finally {
+            reportMetrics(getGoal(), success);
+        }
+    }
+
+    protected String getGoal() {
+        return "push";
+    }
+
+    /**
+     * @return the projects whose messages are pushed, this project only
+     */
+    protected List<PushedModule> getPushedModules() throws MojoExecutionException {
+        List<PushedModule> modules = new ArrayList<>();
+        if (messagesInputDirectory.exists()) {
+            modules.add(new PushedModule(getMavenId(project.getArtifact()), messagesInputDirectory, manifestFile));
+        } else {
+            getLog().info(messagesInputDirectory.getPath() + " not found");
+        }
+        return modules;
+    }
+
+    /**
+     * Pushes the messages of the given projects, listing the crowdin project once and sending all the requests
+     * in a single batch.
+     */
+    private void push(List<PushedModule> modules) throws MojoExecutionException {
+        if (modules.isEmpty()) {
+            return;
+        }
+
+        Map<String, File> newFiles = new HashMap<>();
+        Map<String, File> toUpdateFiles = new HashMap<>();
+        List<String> toDeleteFiles = new ArrayList<>();
+        Map<String, String> hashes = new HashMap<>();
+        Map<String, PushManifest> manifests = new HashMap<>();
+
+        // Retrieve project informations
+        getLog().info("Retrieving project informations");
+        CrowdinFileIndex crowdinFiles;
+        try (BuildMetrics.Timer ignored = metrics.time("info")) {
+            crowdinFiles = crowdinRequestFiles();
+        }
+
+        try {
+            int fileCount = 0;
+            for (PushedModule module : modules) {
+                // Get crowdin files
+                String folderName = module.folderName;
+
+                // Get Maven files
+                getLog().debug("Retrieving message files from " + module.messagesDirectory);
+                module.files = getMessageFiles(module.messagesDirectory, folderName);
+                fileCount += module.files.size();
+                Map<String, String> remoteRevisions = new HashMap<>();
+
+                module.manifest = loadManifest(module.manifestFile);
+                manifests.put(folderName, module.manifest);
+
+                if (!crowdinFiles.containsFolder(folderName)) {
+                    // Create project folder if it does not exist
+                    crowdinCreateFolder(folderName);
+                } else {
+                    // List crowdin files
+                    for (CrowdinNode node : crowdinFiles.getChildren(folderName)) {
+                        if (!node.isFolder()) {
+                            // check that files still exist
+                            String mapName = node.getPath();
+                            if (!module.files.containsKey(mapName)) {
+                                getLog().debug(mapName
+                                        + " is in crowdin project but not in this project, delete it later");
+                                // otherwise delete it from crowdin
+                                toDeleteFiles.add(mapName);
+                            } else if (checkRemoteRevision) {
+                                remoteRevisions.put(mapName, node.getRevision());
+                            }
+                        }
+                    }
+                }
+
+                // For existing maven files, check if file exist or not on crowdin
+                Set<Entry<String, File>> entrySet = module.files.entrySet();
+                for (Entry<String, File> entry : entrySet) {
+                    String hash;
+                    try (BuildMetrics.Timer ignored = metrics.time("hash")) {
+                        hash = hash(entry.getValue());
+                    }
+                    hashes.put(entry.getKey(), hash);
+                    if (crowdinFiles.containsFile(entry.getKey())) {
+                        String remoteRevision = remoteRevisions.get(entry.getKey());
+                        if (module.manifest.isUnchanged(entry.getKey(), hash, remoteRevision)) {
+                            getLog().debug(entry.getKey() + " did not change since last push");
+                            module.manifest.setRevision(entry.getKey(), remoteRevision);
+                        } else {
+                            // update
+                            getLog().debug(entry.getKey() + " has to be updated");
+                            toUpdateFiles.put(entry.getKey(), entry.getValue());
+                        }
+                    } else {
+                        // put
+                        getLog().debug(entry.getKey() + " has to be added");
+                        newFiles.put(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+
+            metrics.add("files", fileCount);
+            metrics.add("files.added", newFiles.size());
+            metrics.add("files.updated", toUpdateFiles.size());
+            metrics.add("files.deleted", toDeleteFiles.size());
+            metrics.add("files.unchanged", fileCount - newFiles.size() - toUpdateFiles.size());
+
+            if (toUpdateFiles.size() != 0) {
+                getLog().info("Updating files on crowdin :");
+                for (String toUpdateFile : toUpdateFiles.keySet()) {
+                    getLog().info(toUpdateFile);
+                }
+            }
+            if (newFiles.size() != 0) {
+                getLog().info("Adding files on crowdin :");
+                for (String newFile : newFiles.keySet()) {
+                    getLog().info(newFile);
+                }
+            }
+            for (String toDeleteFile : toDeleteFiles) {
+                getLog().info("Deleting " + toDeleteFile + " on crowdin");
+            }
+
+            List<PushRequest> requests = new ArrayList<>();
+            for (Map<String, File> chunk : chunk(toUpdateFiles)) {
+                requests.add(new PushRequest("update-file", null, chunk, null));
+            }
+            for (Map<String, File> chunk : chunk(newFiles)) {
+                Map<String, String> parameters = new HashMap<>();
+                parameters.put("type", "properties");
+                requests.add(new PushRequest("add-file", parameters, chunk, null));
+            }
+            for (String toDeleteFile : toDeleteFiles) {
+                Map<String, String> parameters = new HashMap<>();
+                parameters.put("file", toDeleteFile);
+                requests.add(new PushRequest("delete-file", parameters, null, toDeleteFile));
+            }
+
+            if (requests.isEmpty()) {
+                getLog().info("Crowdin is up to date with this project");
+            } else {
+                try (BuildMetrics.Timer ignored = metrics.time("upload")) {
+                    runRequests(requests, manifests, hashes);
+                }
+                if (checkRemoteRevision && (!newFiles.isEmpty() || !toUpdateFiles.isEmpty())) {
+                    recordRevisions(modules);
+                }
+            }
+        } finally {
+            for (PushedModule module : modules) {
+                if (module.manifest != null) {
+                    module.manifest.retainAll(module.files.keySet());
+                    saveManifest(module.manifest, module.manifestFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param manifests the manifests of the pushed projects, by crowdin folder
+     */
+    private void runRequests(List<PushRequest> requests, Map<String, PushManifest> manifests,
+                             Map<String, String> hashes) throws MojoExecutionException {
+        List<ParallelTasks.Result<Void>> results;
+        try {
+            results = ParallelTasks.run(requests, pushThreads);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while pushing files on crowdin", e);
+        }
+        int failures = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            PushRequest request = requests.get(i);
+            ParallelTasks.Result<Void> result = results.get(i);
+            String description = request.method + " " + (i + 1) + "/" + requests.size() + " (" + request.size()
+                    + " files)";
+            if (result.isSuccess()) {
+                getLog().info(description + " succeeded");
+                if (request.files != null) {
+                    for (String path : request.files.keySet()) {
+                        getManifest(manifests, path).pushed(path, hashes.get(path));
+                    }
+                }
+                if (request.deletedFile != null) {
+                    getManifest(manifests, request.deletedFile).removed(request.deletedFile);
+                }
+            } else {
+                failures++;
+                getLog().error(description + " failed", result.getException());
+            }
+        }
+        if (failures != 0) {
+            throw new MojoExecutionException(failures + " of " + requests.size() + " requests to crowdin failed");
+        }
+    }
+
+    /**
+     * Records the crowdin revisions of the files just pushed, so that the next push notices a push made elsewhere.
+     */
+    private void recordRevisions(List<PushedModule> modules) throws MojoExecutionException {
+        getLog().debug("Retrieving revisions of the pushed files");
+        CrowdinFileIndex crowdinFiles;
+        try (BuildMetrics.Timer ignored = metrics.time("info")) {
+            crowdinFiles = crowdinRequestFiles();
+        }
+        for (PushedModule module : modules) {
+            for (String path : module.files.keySet()) {
+                CrowdinNode node = crowdinFiles.get(path);
+                if (node != null && !node.isFolder()) {
+                    module.manifest.setRevision(path, node.getRevision());
+                }
+            }
+        }
+    }
+
+    private static PushManifest getManifest(Map<String, PushManifest> manifests, String path) {
+        return manifests.get(path.substring(0, path.indexOf('/')));
+    }
+
+    private List<Map<String, File>> chunk(Map<String, File> files) {
+        List<Map<String, File>> chunks = new ArrayList<>();
+        Map<String, File> chunk = null;
+        for (Entry<String, File> entry : new TreeMap<>(files).entrySet()) {
+            if (chunk == null || chunk.size() >= Math.max(1, filesPerRequest)) {
+                chunk = new LinkedHashMap<>();
+                chunks.add(chunk);
+            }
+            chunk.put(entry.getKey(), entry.getValue());
+        }
+        return chunks;
+    }
+
+    /**
+     * A single call to the crowdin API, for a chunk of files to add or update, or a file to delete.
+     */
+    private class PushRequest implements Callable<Void> {
+
+        private final String method;
+        private final Map<String, String> parameters;
+        private final Map<String, File> files;
+        private final String deletedFile;
+
+        PushRequest(String method, Map<String, String> parameters, Map<String, File> files, String deletedFile) {
+            this.method = method;
+            this.parameters = parameters;
+            this.files = files;
+            this.deletedFile = deletedFile;
+        }
+
+        int size() {
+            return files != null ? files.size() : 1;
+        }
+
+        @Override
+        public Void call() throws MojoExecutionException {
+            crowdinRequestAPI(method, parameters, files, true);
+            return null;
+        }
+    }
+
+    /**
+     * A project whose messages are pushed in its own crowdin folder.
+     */
+    protected static class PushedModule {
+        private final String folderName;
+        private final File messagesDirectory;
+        private final File manifestFile;
+        private Map<String, File> files = Collections.emptyMap();
+        private PushManifest manifest;
+
+        protected PushedModule(String folderName, File messagesDirectory, File manifestFile) {
+            this.folderName = folderName;
+            this.messagesDirectory = messagesDirectory;
+            this.manifestFile = manifestFile;
+        }
+    }
+
+    private PushManifest loadManifest(File manifestFile) {
+        String crowdinProject = authenticationInfo.getUserName();
+        if (force) {
+            return new PushManifest(crowdinProject);
+        }
+        try {
+            return PushManifest.load(manifestFile, crowdinProject);
+        } catch (IOException e) {
+            getLog().warn("Failed to read " + manifestFile + ", pushing all files", e);
+            return new PushManifest(crowdinProject);
+        }
+    }
+
+    private void saveManifest(PushManifest manifest, File manifestFile) {
+        try {
+            manifest.save(manifestFile);
+        } catch (IOException e) {
+            getLog().warn("Failed to save " + manifestFile, e);
+        }
+    }
+
+    private String hash(File file) throws MojoExecutionException {
+        try {
+            return Hashing.sha256(file);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to read " + file, e);
+        }
+    }
+
+    private Map<String, File> getMessageFiles(File messagesDirectory, String folderName) {
+        Map<String, File> result = new HashMap<>();
+        File[] listFiles = messagesDirectory.listFiles();
+        if (listFiles != null) {
+            for (File file : listFiles) {
+                if (!file.isDirectory() && !file.getName().startsWith(".") && file.getName().endsWith(".properties")) {
+                    String crowdinPath = folderName + "/" + file.getName();
+                    getLog().debug("Found " + crowdinPath);
+                    result.put(crowdinPath, file);
+                }
+            }
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.googlecode.crowdin.maven;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Push Maven translations of all the projects of the reactor in crowdin, listing the crowdin project once and
+ * sending the changes of every project in a single batch. The messages of each project are looked up at the same
+ * place relative to its base directory as for the project running the goal, and its push manifest at the same place
+ * relative to its build directory.
+ */
+@Mojo(name = "push-reactor", aggregator = true, threadSafe = true)
+public class PushReactorCrowdinMojo extends PushCrowdinMojo {
+
+    @Override
+    protected String getGoal() {
+        return "push-reactor";
+    }
+
+    @Override
+    protected List<PushedModule> getPushedModules() throws MojoExecutionException {
+        String messagesPath = getRelativePath(messagesInputDirectory, project.getBasedir());
+        String manifestPath = getRelativePath(manifestFile, new File(project.getBuild().getDirectory()));
+
+        List<PushedModule> modules = new ArrayList<>();
+        for (MavenProject reactorProject : session.getProjects()) {
+            File messagesDirectory = new File(reactorProject.getBasedir(), messagesPath);
+            if (messagesDirectory.isDirectory()) {
+                File manifest = new File(reactorProject.getBuild().getDirectory(), manifestPath);
+                modules.add(new PushedModule(getMavenId(reactorProject.getArtifact()), messagesDirectory, manifest));
+            } else {
+                getLog().debug(messagesDirectory + " not found");
+            }
+        }
+        getLog().info("Pushing messages of " + modules.size() + " projects of the reactor");
+        return modules;
+    }
+
+    private static String getRelativePath(File file, File directory) throws MojoExecutionException {
+        Path base = directory.toPath().toAbsolutePath().normalize();
+        Path path = file.toPath().toAbsolutePath().normalize();
+        if (!path.startsWith(base)) {
+            throw new MojoExecutionException(file + " must be in " + base
+                    + " to be found in each project of the reactor");
+        }
+        return base.relativize(path).toString();
+    }
+}
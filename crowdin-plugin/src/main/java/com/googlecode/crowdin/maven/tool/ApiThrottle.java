@@ -0,0 +1,67 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Pause shared by every crowdin request of a build session. When crowdin rate limits one request, all the modules of
+ * the build wait before sending their next request instead of hitting the limit together.
+ */
+public final class ApiThrottle {
+
+    /**
+     * Specific to the class realm loading this class, as the data of the request is shared by all the realms.
+     */
+    private static final String KEY = ApiThrottle.class.getName() + "@"
+            + Integer.toHexString(System.identityHashCode(ApiThrottle.class));
+
+    private long resumeAt;
+
+    private ApiThrottle() {
+    }
+
+    /**
+     * @return the throttle of the session, kept in the data of its request, or a new one if there is no session
+     */
+    public static ApiThrottle get(MavenSession session) {
+        if (session == null || session.getRequest() == null) {
+            return new ApiThrottle();
+        }
+        synchronized (session.getRequest()) {
+            ApiThrottle throttle = (ApiThrottle) session.getRequest().getData().get(KEY);
+            if (throttle == null) {
+                throttle = new ApiThrottle();
+                session.getRequest().getData().put(KEY, throttle);
+            }
+            return throttle;
+        }
+    }
+
+    /**
+     * Delays all requests for the given time.
+     */
+    public synchronized void pause(long millis) {
+        resumeAt = Math.max(resumeAt, System.currentTimeMillis() + millis);
+    }
+
+    /**
+     * Waits until requests are allowed again.
+     *
+     * @return false if requests are paused beyond the deadline
+     */
+    public boolean await(long deadline) throws InterruptedException {
+        while (true) {
+            long now = System.currentTimeMillis();
+            long wait;
+            synchronized (this) {
+                wait = resumeAt - now;
+            }
+            if (wait <= 0) {
+                return true;
+            }
+            if (now + wait > deadline) {
+                return false;
+            }
+            Thread.sleep(wait);
+        }
+    }
+}
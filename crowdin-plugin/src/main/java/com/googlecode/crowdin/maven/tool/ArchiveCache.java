@@ -0,0 +1,187 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Archives downloaded from crowdin, kept in a directory shared by the modules of a build and by later builds. The
+ * validators of the last download are kept next to the archives for conditional requests, so an archive is
+ * downloaded at most once per build and only when it changed on crowdin.
+ * <p>
+ * Each download is written in its own file named after its content hash and never modified afterwards, so that
+ * readers always read the content whose hash they were given, even when another build downloads a newer archive.
+ * Downloads are serialized per archive within the JVM and with a file lock across JVMs. Archives that were not used
+ * for {@link #MAX_UNUSED_MILLIS} are deleted.
+ */
+public final class ArchiveCache {
+
+    private static final String LOCK_SUFFIX = ".lock";
+
+    private static final String STATE_SUFFIX = ".properties";
+
+    private static final String ARCHIVE_SUFFIX = ".zip";
+
+    private static final long MAX_UNUSED_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static WeakReference<Object> currentSession;
+    private static final Map<String, Archive> archives = new HashMap<>();
+    private static final Map<String, Object> locks = new HashMap<>();
+
+    private ArchiveCache() {
+    }
+
+    /**
+     * A downloaded archive, to be read but never modified or deleted.
+     */
+    public static final class Archive {
+        private final File file;
+        private final PullState state;
+
+        private Archive(File file, PullState state) {
+            this.file = file;
+            this.state = state;
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * @return the validators and content hash of the archive
+         */
+        public PullState getState() {
+            return state;
+        }
+    }
+
+    /**
+     * Downloads an archive.
+     */
+    public interface Downloader {
+
+        /**
+         * @param previous the validators of the cached archive, empty if there is none
+         * @param target   the file to write the archive to
+         * @return the validators and content hash of the written archive, or null if the cached archive did not
+         * change
+         */
+        PullState download(PullState previous, File target) throws Exception;
+    }
+
+    /**
+     * Returns an archive, downloading it if it was not yet downloaded during this session and changed on crowdin.
+     *
+     * @param session   the build session
+     * @param key       name of the archive, unique for a crowdin project
+     * @param directory directory of the archives
+     */
+    public static Archive get(Object session, String key, File directory, Downloader downloader) throws Exception {
+        Object lock;
+        synchronized (ArchiveCache.class) {
+            if (currentSession == null || currentSession.get() != session) {
+                clear();
+                currentSession = new WeakReference<>(session);
+            }
+            key = new File(directory, key).getAbsolutePath();
+            lock = locks.get(key);
+            if (lock == null) {
+                lock = new Object();
+                locks.put(key, lock);
+            }
+        }
+
+        synchronized (lock) {
+            Archive archive;
+            synchronized (ArchiveCache.class) {
+                archive = archives.get(key);
+            }
+            if (archive == null) {
+                archive = download(new File(key), downloader);
+                synchronized (ArchiveCache.class) {
+                    archives.put(key, archive);
+                }
+            } else {
+                archive.getFile().setLastModified(System.currentTimeMillis());
+            }
+            return archive;
+        }
+    }
+
+    /**
+     * Forgets the archives of the current session, they are still kept on disk.
+     */
+    public static synchronized void clear() {
+        archives.clear();
+        locks.clear();
+        currentSession = null;
+    }
+
+    private static Archive download(File base, Downloader downloader) throws Exception {
+        File folder = base.getParentFile();
+        folder.mkdirs();
+        File stateFile = new File(base.getPath() + STATE_SUFFIX);
+        File lockFile = new File(base.getPath() + LOCK_SUFFIX);
+        try (FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+             FileLock ignored = channel.lock()) {
+            PullState previous = PullState.load(stateFile);
+            File previousFile = getArchiveFile(base, previous.getContentHash());
+            if (previousFile == null || !previousFile.isFile()) {
+                previous = new PullState();
+            }
+            File temp = AtomicFiles.createTempFile(new File(base.getPath() + ARCHIVE_SUFFIX));
+            try {
+                PullState state = downloader.download(previous, temp);
+                Archive archive;
+                if (state == null) {
+                    archive = new Archive(previousFile, previous);
+                } else {
+                    File archiveFile = getArchiveFile(base, state.getContentHash());
+                    if (archiveFile == null) {
+                        throw new IOException("No content hash for " + base);
+                    }
+                    if (!archiveFile.isFile()) {
+                        AtomicFiles.move(temp, archiveFile);
+                    }
+                    state.save(stateFile);
+                    archive = new Archive(archiveFile, state);
+                }
+                // Marks the archive as used, so that it is not deleted while other builds may read it
+                archive.getFile().setLastModified(System.currentTimeMillis());
+                deleteUnused(base, archive.getFile());
+                return archive;
+            } finally {
+                temp.delete();
+            }
+        }
+    }
+
+    private static File getArchiveFile(File base, String contentHash) {
+        return contentHash == null ? null : new File(base.getPath() + "-" + contentHash + ARCHIVE_SUFFIX);
+    }
+
+    private static void deleteUnused(File base, File current) {
+        File[] files = base.getParentFile().listFiles();
+        if (files == null) {
+            return;
+        }
+        String prefix = base.getName() + "-";
+        long limit = System.currentTimeMillis() - MAX_UNUSED_MILLIS;
+        for (File file : files) {
+            String name = file.getName();
+            // The hash has no '-', archives of pt are not mistaken for those of pt-BR
+            if (name.startsWith(prefix) && name.endsWith(ARCHIVE_SUFFIX)
+                    && name.indexOf('-', prefix.length()) == -1 && !file.equals(current)
+                    && file.lastModified() < limit) {
+                file.delete();
+            }
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Writes files through a temporary file of the same folder renamed to the target, so that readers never see a
+ * partial file.
+ */
+public final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Content written to a file by {@link #writeIfChanged(File, Content)}.
+     */
+    public interface Content {
+
+        /**
+         * Writes the content, without closing the stream.
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes the content to the file unless the file already has this exact content, so that unchanged files keep
+     * their timestamp.
+     *
+     * @return true if the file was written
+     */
+    public static boolean writeIfChanged(File file, byte[] content) throws IOException {
+        if (file.isFile() && file.length() == content.length) {
+            byte[] existing = new byte[content.length];
+            try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+                in.readFully(existing);
+            }
+            if (Arrays.equals(existing, content)) {
+                return false;
+            }
+        }
+        File temp = createTempFile(file);
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                out.write(content);
+            }
+            move(temp, file);
+        } finally {
+            temp.delete();
+        }
+        return true;
+    }
+
+    /**
+     * Streams the content to the file unless the file already has this exact content. The content is compared with
+     * the file while it is written, and only goes to a temporary file from its first different byte on, so neither
+     * the content nor the file is held in memory.
+     *
+     * @return true if the file was written
+     */
+    public static boolean writeIfChanged(File file, Content content) throws IOException {
+        try (ComparingOutputStream out = new ComparingOutputStream(file)) {
+            content.writeTo(out);
+            return out.commit();
+        }
+    }
+
+    /**
+     * Creates an empty temporary file in the folder of the given file, to be moved to it. Its name starts with a dot
+     * so that it is ignored by the goals reading the folder.
+     */
+    public static File createTempFile(File file) throws IOException {
+        File folder = file.getAbsoluteFile().getParentFile();
+        folder.mkdirs();
+        return File.createTempFile("." + file.getName(), ".tmp", folder);
+    }
+
+    /**
+     * Replaces the target with the source, atomically when the file system supports it.
+     */
+    public static void move(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads the existing file along with the written bytes, and copies the common prefix to a temporary file once
+     * they differ.
+     */
+    private static final class ComparingOutputStream extends OutputStream {
+
+        private static final int BUFFER_SIZE = 8192;
+
+        private final File file;
+        private InputStream existing;
+        private byte[] buffer = new byte[BUFFER_SIZE];
+        private long matched;
+        private File temp;
+        private OutputStream out;
+
+        ComparingOutputStream(File file) throws IOException {
+            this.file = file;
+            if (file.isFile()) {
+                existing = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+            } else {
+                diverge();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (out == null && existing.read() == (b & 0xff)) {
+                matched++;
+                return;
+            }
+            diverge();
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (out == null) {
+                if (buffer.length < len) {
+                    buffer = new byte[len];
+                }
+                int read = 0;
+                while (read < len) {
+                    int n = existing.read(buffer, read, len - read);
+                    if (n < 0) {
+                        break;
+                    }
+                    read += n;
+                }
+                int same = 0;
+                while (same < read && buffer[same] == b[off + same]) {
+                    same++;
+                }
+                matched += same;
+                if (same == len) {
+                    return;
+                }
+                off += same;
+                len -= same;
+                diverge();
+            }
+            out.write(b, off, len);
+        }
+
+        /**
+         * Replaces the file with the written content if it differs.
+         *
+         * @return true if the file was written
+         */
+        boolean commit() throws IOException {
+            if (out == null) {
+                if (existing.read() < 0) {
+                    return false;
+                }
+                diverge();
+            }
+            out.close();
+            move(temp, file);
+            return true;
+        }
+
+        private void diverge() throws IOException {
+            if (out != null) {
+                return;
+            }
+            if (existing != null) {
+                existing.close();
+            }
+            temp = createTempFile(file);
+            out = new BufferedOutputStream(new FileOutputStream(temp), BUFFER_SIZE);
+            if (matched > 0) {
+                try (InputStream in = new FileInputStream(file)) {
+                    long remaining = matched;
+                    while (remaining > 0) {
+                        int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                        if (n < 0) {
+                            throw new EOFException("File changed while being compared: " + file);
+                        }
+                        out.write(buffer, 0, n);
+                        remaining -= n;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                if (existing != null) {
+                    existing.close();
+                }
+                if (out != null) {
+                    out.close();
+                }
+            } finally {
+                if (temp != null) {
+                    temp.delete();
+                }
+            }
+        }
+    }
+}
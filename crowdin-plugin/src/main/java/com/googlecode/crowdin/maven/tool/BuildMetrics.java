@@ -0,0 +1,159 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and phase timings of a goal, safe to update from several threads. Timings of phases running in parallel
+ * are summed.
+ */
+public final class BuildMetrics {
+
+    private final long start = System.nanoTime();
+    private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, AtomicLong> timings = new ConcurrentSkipListMap<>();
+
+    public void add(String counter, long delta) {
+        get(counters, counter).addAndGet(delta);
+    }
+
+    public void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public long getCounter(String counter) {
+        AtomicLong value = counters.get(counter);
+        return value == null ? 0 : value.get();
+    }
+
+    /**
+     * Starts timing a phase, until the returned timer is closed.
+     */
+    public Timer time(String phase) {
+        return new Timer(get(timings, phase));
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * @return a one line summary of the goal
+     */
+    public String getSummary(String goal) {
+        StringBuilder summary = new StringBuilder();
+        summary.append("crowdin:").append(goal).append(" took ").append(getElapsedMillis()).append(" ms");
+        appendValues(summary);
+        return summary.toString();
+    }
+
+    /**
+     * Appends the phase timings and the counters to a summary.
+     */
+    public void appendValues(StringBuilder summary) {
+        for (Map.Entry<String, AtomicLong> timing : timings.entrySet()) {
+            summary.append(", ").append(timing.getKey()).append(' ').append(timing.getValue().get()).append(" ms");
+        }
+        for (Map.Entry<String, AtomicLong> counter : counters.entrySet()) {
+            summary.append(", ").append(counter.getKey()).append('=').append(counter.getValue().get());
+        }
+    }
+
+    /**
+     * Adds the counters and phase timings of another goal to these ones.
+     */
+    public void addAll(BuildMetrics other) {
+        for (Map.Entry<String, AtomicLong> counter : other.counters.entrySet()) {
+            get(counters, counter.getKey()).addAndGet(counter.getValue().get());
+        }
+        for (Map.Entry<String, AtomicLong> timing : other.timings.entrySet()) {
+            get(timings, timing.getKey()).addAndGet(timing.getValue().get());
+        }
+    }
+
+    public String toJson(String goal, String project, boolean success) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"goal\": ");
+        string(json, goal);
+        json.append(",\n  \"project\": ");
+        string(json, project);
+        json.append(",\n  \"success\": ").append(success);
+        json.append(",\n  \"timeMillis\": ").append(getElapsedMillis());
+        json.append(",\n  \"phasesMillis\": ");
+        object(json, timings);
+        json.append(",\n  \"counters\": ");
+        object(json, counters);
+        json.append("\n}\n");
+        return json.toString();
+    }
+
+    public void write(File file, String goal, String project, boolean success) throws IOException {
+        AtomicFiles.writeIfChanged(file, toJson(goal, project, success).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static AtomicLong get(ConcurrentMap<String, AtomicLong> values, String name) {
+        AtomicLong value = values.get(name);
+        if (value == null) {
+            AtomicLong newValue = new AtomicLong();
+            value = values.putIfAbsent(name, newValue);
+            if (value == null) {
+                value = newValue;
+            }
+        }
+        return value;
+    }
+
+    private static void object(StringBuilder json, Map<String, AtomicLong> values) {
+        json.append('{');
+        boolean first = true;
+        for (Map.Entry<String, AtomicLong> value : values.entrySet()) {
+            json.append(first ? "\n    " : ",\n    ");
+            string(json, value.getKey());
+            json.append(": ").append(value.getValue().get());
+            first = false;
+        }
+        json.append(first ? "}" : "\n  }");
+    }
+
+    private static void string(StringBuilder json, String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Adds the time elapsed since its creation to a phase when closed.
+     */
+    public static final class Timer implements AutoCloseable {
+        private final AtomicLong total;
+        private final long start = System.nanoTime();
+
+        private Timer(AtomicLong total) {
+            this.total = total;
+        }
+
+        @Override
+        public void close() {
+            total.addAndGet(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.util.*;
+
+/**
+ * Files and folders of the crowdin project, indexed by their path (folder names separated by '/').
+ */
+public class CrowdinFileIndex {
+
+    private final Map<String, CrowdinNode> nodes = new HashMap<>();
+    private final Map<String, List<CrowdinNode>> children = new HashMap<>();
+
+    public void add(CrowdinNode node) {
+        nodes.put(node.getPath(), node);
+        int slash = node.getPath().lastIndexOf('/');
+        String parentPath = slash == -1 ? "" : node.getPath().substring(0, slash);
+        List<CrowdinNode> siblings = children.get(parentPath);
+        if (siblings == null) {
+            siblings = new ArrayList<>();
+            children.put(parentPath, siblings);
+        }
+        siblings.add(node);
+    }
+
+    public CrowdinNode get(String path) {
+        return nodes.get(path);
+    }
+
+    public boolean containsFolder(String path) {
+        CrowdinNode node = nodes.get(path);
+        return node != null && node.isFolder();
+    }
+
+    public boolean containsFile(String path) {
+        CrowdinNode node = nodes.get(path);
+        return node != null && !node.isFolder();
+    }
+
+    /**
+     * @return the direct children of a folder, the root folder being ""
+     */
+    public List<CrowdinNode> getChildren(String folderPath) {
+        List<CrowdinNode> result = children.get(folderPath);
+        return result == null ? Collections.<CrowdinNode>emptyList() : Collections.unmodifiableList(result);
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+}
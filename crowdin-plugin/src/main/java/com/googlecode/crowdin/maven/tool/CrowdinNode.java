@@ -0,0 +1,14 @@
+package com.googlecode.crowdin.maven.tool;
+
+import lombok.Value;
+
+/**
+ * A file or a folder of the crowdin project.
+ */
+@Value
+public class CrowdinNode {
+    String path;
+    String name;
+    boolean folder;
+    String revision;
+}
@@ -0,0 +1,56 @@
+package com.googlecode.crowdin.maven.tool;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The parts of a crowdin API response used by the goals.
+ */
+@Data
+public class CrowdinResponse {
+
+    /**
+     * Name of the root element, "success" or "error" for most methods.
+     */
+    private String root;
+
+    /**
+     * The status attribute of the root element, if any.
+     */
+    private String status;
+
+    /**
+     * Normalized text of the direct children of the root element, by element name.
+     */
+    private final Map<String, String> values = new HashMap<>();
+
+    /**
+     * The files element, if the response has one.
+     */
+    private CrowdinFileIndex files;
+
+    /**
+     * The codes of the language elements, as returned by the status method.
+     */
+    private final List<String> languages = new ArrayList<>();
+
+    public boolean isError() {
+        return "error".equals(root);
+    }
+
+    public String getValue(String name) {
+        return values.get(name);
+    }
+
+    public String getErrorCode() {
+        return values.get("code");
+    }
+
+    public String getErrorMessage() {
+        return values.get("message");
+    }
+}
@@ -0,0 +1,187 @@
+package com.googlecode.crowdin.maven.tool;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming parser of crowdin API responses. Only the root element, its simple children, the files tree and the
+ * language codes are kept, everything else is skipped while reading. Instances of the underlying factory are
+ * confined to a thread.
+ */
+public final class CrowdinResponseParser {
+
+    private static final ThreadLocal<XMLInputFactory> FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+            factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+            return factory;
+        }
+    };
+
+    private CrowdinResponseParser() {
+    }
+
+    public static CrowdinResponse parse(InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.get().createXMLStreamReader(in);
+        try {
+            CrowdinResponse response = new CrowdinResponse();
+            nextTag(reader);
+            response.setRoot(reader.getLocalName());
+            response.setStatus(reader.getAttributeValue(null, "status"));
+            while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+                String name = reader.getLocalName();
+                if (!response.isError() && "files".equals(name)) {
+                    CrowdinFileIndex index = new CrowdinFileIndex();
+                    for (CrowdinNode node : readItems(reader)) {
+                        index.add(node);
+                    }
+                    response.setFiles(index);
+                } else if ("language".equals(name)) {
+                    String code = readLanguageCode(reader);
+                    if (code != null && !code.isEmpty()) {
+                        response.getLanguages().add(code);
+                    }
+                } else {
+                    String text = readText(reader);
+                    if (!text.isEmpty()) {
+                        response.getValues().put(name, text);
+                    }
+                }
+            }
+            return response;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the items of a files element, with paths relative to this element.
+     */
+    private static List<CrowdinNode> readItems(XMLStreamReader reader) throws XMLStreamException {
+        List<CrowdinNode> nodes = new ArrayList<>();
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if ("item".equals(reader.getLocalName())) {
+                readItem(reader, nodes);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return nodes;
+    }
+
+    private static void readItem(XMLStreamReader reader, List<CrowdinNode> nodes) throws XMLStreamException {
+        String name = null;
+        String nodeType = null;
+        String lastRevision = null;
+        String lastUpdated = null;
+        List<CrowdinNode> subNodes = null;
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            String element = reader.getLocalName();
+            if ("files".equals(element)) {
+                subNodes = readItems(reader);
+            } else if ("name".equals(element)) {
+                name = readText(reader);
+            } else if ("node_type".equals(element)) {
+                nodeType = readText(reader);
+            } else if ("last_revision".equals(element)) {
+                lastRevision = readText(reader);
+            } else if ("last_updated".equals(element)) {
+                lastUpdated = readText(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        if (name != null && !name.isEmpty()) {
+            boolean folder = "directory".equals(nodeType);
+            nodes.add(new CrowdinNode(name, name, folder, lastRevision != null ? lastRevision : lastUpdated));
+            if (folder && subNodes != null) {
+                for (CrowdinNode subNode : subNodes) {
+                    nodes.add(new CrowdinNode(name + "/" + subNode.getPath(), subNode.getName(), subNode.isFolder(),
+                            subNode.getRevision()));
+                }
+            }
+        }
+    }
+
+    private static String readLanguageCode(XMLStreamReader reader) throws XMLStreamException {
+        String code = null;
+        while (nextTag(reader) == XMLStreamConstants.START_ELEMENT) {
+            if ("code".equals(reader.getLocalName())) {
+                code = readText(reader);
+            } else {
+                skipElement(reader);
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Reads the normalized text of the current element, ignoring nested elements.
+     */
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (depth == 1 && (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA)) {
+                text.append(reader.getText());
+            }
+        }
+        return normalize(text);
+    }
+
+    /**
+     * Moves to the next start or end tag, skipping text and comments.
+     */
+    private static int nextTag(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT || event == XMLStreamConstants.END_ELEMENT) {
+                return event;
+            }
+        }
+        return XMLStreamConstants.END_DOCUMENT;
+    }
+
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static String normalize(CharSequence text) {
+        StringBuilder result = new StringBuilder(text.length());
+        boolean space = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = result.length() > 0;
+            } else {
+                if (space) {
+                    result.append(' ');
+                    space = false;
+                }
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
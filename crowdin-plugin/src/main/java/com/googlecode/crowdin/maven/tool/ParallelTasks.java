@@ -0,0 +1,95 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs independent tasks on a bounded number of threads.
+ */
+public final class ParallelTasks {
+
+    private ParallelTasks() {
+    }
+
+    /**
+     * The outcome of a task, either a value or the exception it threw.
+     */
+    public static final class Result<T> {
+        private final T value;
+        private final Exception exception;
+
+        private Result(T value, Exception exception) {
+            this.value = value;
+            this.exception = exception;
+        }
+
+        public boolean isSuccess() {
+            return exception == null;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public Exception getException() {
+            return exception;
+        }
+    }
+
+    /**
+     * Runs all the tasks, even if some of them fail.
+     *
+     * @param threads maximum number of tasks running at the same time, tasks run in the calling thread if 1 or less
+     * @return the results, in the order of the tasks
+     */
+    public static <T> List<Result<T>> run(List<? extends Callable<T>> tasks, int threads) throws InterruptedException {
+        List<Result<T>> results = new ArrayList<>(tasks.size());
+        if (threads <= 1 || tasks.size() <= 1) {
+            for (Callable<T> task : tasks) {
+                results.add(call(task));
+            }
+            return results;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, tasks.size()), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "crowdin-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<Result<T>>> futures = new ArrayList<>(tasks.size());
+            for (final Callable<T> task : tasks) {
+                futures.add(executor.submit(new Callable<Result<T>>() {
+                    @Override
+                    public Result<T> call() {
+                        return ParallelTasks.call(task);
+                    }
+                }));
+            }
+            for (Future<Result<T>> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(new Result<T>(null, new IllegalStateException(e.getCause())));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> Result<T> call(Callable<T> task) {
+        try {
+            return new Result<>(task.call(), null);
+        } catch (Exception e) {
+            return new Result<>(null, e);
+        }
+    }
+}
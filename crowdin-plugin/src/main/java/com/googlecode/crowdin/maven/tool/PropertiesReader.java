@@ -0,0 +1,47 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.io.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Reads properties files straight into a map, using the parser of {@link Properties} without keeping its
+ * synchronized table.
+ */
+public final class PropertiesReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private PropertiesReader() {
+    }
+
+    /**
+     * Adds the entries of a properties stream to a map, replacing the entries with the same keys.
+     */
+    public static void load(InputStream in, final Map<String, String> target) throws IOException {
+        new Properties() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public synchronized Object put(Object key, Object value) {
+                return target.put((String) key, (String) value);
+            }
+        }.load(in);
+    }
+
+    public static void load(File file, Map<String, String> target) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE)) {
+            load(in, target);
+        }
+    }
+
+    /**
+     * @return the entries of a properties file, sorted by key
+     */
+    public static TreeMap<String, String> load(File file) throws IOException {
+        TreeMap<String, String> entries = new TreeMap<>();
+        load(file, entries);
+        return entries;
+    }
+}
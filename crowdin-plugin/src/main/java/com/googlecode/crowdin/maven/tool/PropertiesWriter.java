@@ -0,0 +1,142 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Writes properties in the format of {@link java.util.Properties#store(OutputStream, String)}, without the date
+ * comment and with '\n' line separators, so that the same entries always give the same bytes.
+ */
+public final class PropertiesWriter {
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private PropertiesWriter() {
+    }
+
+    /**
+     * Writes the entries one line at a time through a buffer, the stream is flushed but not closed.
+     *
+     * @param entries the entries, written in their iteration order
+     * @param comment a comment written at the top of the file, or null
+     */
+    public static void write(Map<String, String> entries, String comment, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.ISO_8859_1));
+        StringBuilder line = new StringBuilder(128);
+        if (comment != null) {
+            line.append('#');
+            escape(line, comment, false, true);
+            line.append('\n');
+            writer.append(line);
+        }
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            line.setLength(0);
+            escape(line, entry.getKey(), true, false);
+            line.append('=');
+            escape(line, entry.getValue(), false, false);
+            line.append('\n');
+            writer.append(line);
+        }
+        writer.flush();
+    }
+
+    /**
+     * @return the entries as the content of a file, see {@link #write(Map, String, OutputStream)}
+     */
+    public static AtomicFiles.Content content(final Map<String, String> entries, final String comment) {
+        return new AtomicFiles.Content() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                write(entries, comment, out);
+            }
+        };
+    }
+
+    /**
+     * Writes the entries in memory, for callers needing the bytes themselves.
+     *
+     * @see #write(Map, String, OutputStream)
+     */
+    public static byte[] toBytes(Map<String, String> entries, String comment) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(entries.size() * 64);
+        try {
+            write(entries, comment, out);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write in memory", e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void escape(StringBuilder builder, String text, boolean key, boolean comment) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (comment) {
+                if (c == '\n' || c == '\r') {
+                    builder.append("\n#");
+                    if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                } else if (c > 0x00ff) {
+                    unicode(builder, c);
+                } else {
+                    builder.append(c);
+                }
+                continue;
+            }
+            if (c > 61 && c < 127) {
+                if (c == '\\') {
+                    builder.append("\\\\");
+                } else {
+                    builder.append(c);
+                }
+                continue;
+            }
+            switch (c) {
+                case ' ':
+                    if (i == 0 || key) {
+                        builder.append('\\');
+                    }
+                    builder.append(' ');
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\f':
+                    builder.append("\\f");
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    builder.append('\\').append(c);
+                    break;
+                default:
+                    if (c < 0x0020 || c > 0x007e) {
+                        unicode(builder, c);
+                    } else {
+                        builder.append(c);
+                    }
+            }
+        }
+    }
+
+    private static void unicode(StringBuilder builder, char c) {
+        builder.append("\\u")
+                .append(HEX[(c >> 12) & 0xF])
+                .append(HEX[(c >> 8) & 0xF])
+                .append(HEX[(c >> 4) & 0xF])
+                .append(HEX[c & 0xF]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.googlecode.crowdin.maven.tool;
+
+import lombok.Data;
+
+import java.io.*;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Validators of the last archive pulled from crowdin, used to skip a pull when nothing changed.
+ */
+@Data
+public class PullState {
+
+    private static final String ETAG = "etag";
+    private static final String LAST_MODIFIED = "lastModified";
+    private static final String CONTENT_HASH = "contentHash";
+    private static final String CONTENT_LENGTH = "contentLength";
+    private static final String DEPENDENCIES = "dependencies";
+
+    private String etag;
+    private String lastModified;
+    private String contentHash;
+    private long contentLength = -1;
+    private String dependencies;
+
+    public boolean sameContent(PullState other) {
+        return contentHash != null && contentHash.equals(other.contentHash) && contentLength == other.contentLength;
+    }
+
+    public static PullState load(File file) throws IOException {
+        PullState state = new PullState();
+        if (file.isFile()) {
+            Properties properties = new Properties();
+            try (InputStream in = new FileInputStream(file)) {
+                properties.load(in);
+            }
+            state.etag = properties.getProperty(ETAG);
+            state.lastModified = properties.getProperty(LAST_MODIFIED);
+            state.contentHash = properties.getProperty(CONTENT_HASH);
+            try {
+                state.contentLength = Long.parseLong(properties.getProperty(CONTENT_LENGTH, "-1"));
+            } catch (NumberFormatException e) {
+                state.contentLength = -1;
+            }
+            state.dependencies = properties.getProperty(DEPENDENCIES);
+        }
+        return state;
+    }
+
+    public void save(File file) throws IOException {
+        Map<String, String> properties = new TreeMap<>();
+        setProperty(properties, ETAG, etag);
+        setProperty(properties, LAST_MODIFIED, lastModified);
+        setProperty(properties, CONTENT_HASH, contentHash);
+        if (contentLength >= 0) {
+            properties.put(CONTENT_LENGTH, Long.toString(contentLength));
+        }
+        setProperty(properties, DEPENDENCIES, dependencies);
+        AtomicFiles.writeIfChanged(file, PropertiesWriter.content(properties, "crowdin pull state"));
+    }
+
+    private static void setProperty(Map<String, String> properties, String key, String value) {
+        if (value != null) {
+            properties.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.googlecode.crowdin.maven.tool;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Content hashes of the message files last pushed to crowdin, used to upload changed files only.
+ */
+public class PushManifest {
+
+    private static final String PROJECT = "project";
+
+    private static final char SEPARATOR = ';';
+
+    private final String project;
+    private final Map<String, String> hashes = new TreeMap<>();
+    private final Map<String, String> revisions = new TreeMap<>();
+
+    public PushManifest(String project) {
+        this.project = project;
+    }
+
+    /**
+     * @return true if the file was pushed with the same content and, when a remote revision is given, crowdin still
+     * has the revision seen after that push
+     */
+    public boolean isUnchanged(String path, String hash, String remoteRevision) {
+        if (!hash.equals(hashes.get(path))) {
+            return false;
+        }
+        String revision = revisions.get(path);
+        return remoteRevision == null || revision == null || revision.equals(remoteRevision);
+    }
+
+    public void pushed(String path, String hash) {
+        hashes.put(path, hash);
+        revisions.remove(path);
+    }
+
+    public void setRevision(String path, String revision) {
+        if (hashes.containsKey(path) && revision != null) {
+            revisions.put(path, revision);
+        }
+    }
+
+    public void removed(String path) {
+        hashes.remove(path);
+        revisions.remove(path);
+    }
+
+    public void retainAll(Collection<String> paths) {
+        hashes.keySet().retainAll(paths);
+        revisions.keySet().retainAll(paths);
+    }
+
+    /**
+     * Loads a manifest, ignoring its content if it was written for another crowdin project.
+     */
+    public static PushManifest load(File file, String project) throws IOException {
+        PushManifest manifest = new PushManifest(project);
+        if (file.isFile()) {
+            Map<String, String> properties = PropertiesReader.load(file);
+            if (project.equals(properties.get(PROJECT))) {
+                for (Map.Entry<String, String> entry : properties.entrySet()) {
+                    String path = entry.getKey();
+                    if (!PROJECT.equals(path)) {
+                        String value = entry.getValue();
+                        int separator = value.indexOf(SEPARATOR);
+                        if (separator == -1) {
+                            manifest.hashes.put(path, value);
+                        } else {
+                            manifest.hashes.put(path, value.substring(0, separator));
+                            manifest.revisions.put(path, value.substring(separator + 1));
+                        }
+                    }
+                }
+            }
+        }
+        return manifest;
+    }
+
+    public void save(File file) throws IOException {
+        Map<String, String> properties = new TreeMap<>();
+        properties.put(PROJECT, project);
+        for (Map.Entry<String, String> entry : hashes.entrySet()) {
+            String revision = revisions.get(entry.getKey());
+            properties.put(entry.getKey(),
+                    revision == null ? entry.getValue() : entry.getValue() + SEPARATOR + revision);
+        }
+        AtomicFiles.writeIfChanged(file, PropertiesWriter.content(properties, "crowdin push manifest"));
+    }
+}
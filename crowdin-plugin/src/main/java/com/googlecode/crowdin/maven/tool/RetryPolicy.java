@@ -0,0 +1,85 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.apache.http.HttpStatus;
+import org.apache.http.client.utils.DateUtils;
+
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for transient crowdin failures, bounded by a number of attempts and an overall
+ * deadline.
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long baseDelay;
+    private final long maxDelay;
+    private final long timeout;
+
+    /**
+     * @param maxAttempts maximum number of attempts, including the first one
+     * @param baseDelay   delay in milliseconds before the first retry, doubled for each following retry
+     * @param maxDelay    maximum delay in milliseconds between two attempts
+     * @param timeout     maximum time in milliseconds spent on a request, retries included
+     */
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, long timeout) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelay = Math.max(1, baseDelay);
+        this.maxDelay = Math.max(this.baseDelay, maxDelay);
+        this.timeout = timeout;
+    }
+
+    public long getDeadline(long start) {
+        return start + timeout;
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * @param attempt    the attempt that just failed, starting at 1
+     * @param retryAfter delay in milliseconds requested by crowdin, or -1
+     * @return the delay in milliseconds before the next attempt
+     */
+    public long getDelay(int attempt, long retryAfter) {
+        long delay = baseDelay << Math.min(attempt - 1, 20);
+        if (delay <= 0 || delay > maxDelay) {
+            delay = maxDelay;
+        }
+        // equal jitter, so that concurrent modules do not retry together
+        delay = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        return Math.max(delay, retryAfter);
+    }
+
+    /**
+     * @return true if the status means the request was rejected before being processed
+     */
+    public static boolean isRateLimited(int status) {
+        return status == 429 || status == HttpStatus.SC_SERVICE_UNAVAILABLE;
+    }
+
+    public static boolean isTransient(int status) {
+        return isRateLimited(status) || status == HttpStatus.SC_INTERNAL_SERVER_ERROR
+                || status == HttpStatus.SC_BAD_GATEWAY || status == HttpStatus.SC_GATEWAY_TIMEOUT;
+    }
+
+    /**
+     * Parses a Retry-After header, either a number of seconds or an HTTP date.
+     *
+     * @return the delay in milliseconds, or -1
+     */
+    public static long parseRetryAfter(String value, long now) {
+        if (value == null) {
+            return -1;
+        }
+        value = value.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date == null ? -1 : Math.max(0, date.getTime() - now);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.apache.maven.execution.MavenSession;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resources closed by the lifecycle participant of the plugin when the build session ends. They are kept in the data
+ * of the session request as JDK types only, since the participant and the goals may be loaded by different class
+ * realms.
+ */
+public final class SessionCloser {
+
+    private static final String KEY = "crowdin.sessionCloseables";
+
+    private SessionCloser() {
+    }
+
+    /**
+     * Lets the goals of the session register resources to close when it ends.
+     */
+    public static void open(MavenSession session) {
+        synchronized (session.getRequest()) {
+            session.getRequest().getData().put(KEY, new ArrayList<Closeable>());
+        }
+    }
+
+    /**
+     * Registers a resource to close when the session ends.
+     *
+     * @return false if the session does not close resources, the plugin not being declared as a build extension
+     */
+    public static boolean register(MavenSession session, Closeable resource) {
+        if (session == null || session.getRequest() == null) {
+            return false;
+        }
+        synchronized (session.getRequest()) {
+            List<Closeable> closeables = getCloseables(session.getRequest().getData());
+            if (closeables == null) {
+                return false;
+            }
+            closeables.add(resource);
+            return true;
+        }
+    }
+
+    /**
+     * @return the resources registered during the session, which do not accept new ones anymore
+     */
+    public static List<Closeable> close(MavenSession session) {
+        synchronized (session.getRequest()) {
+            List<Closeable> closeables = getCloseables(session.getRequest().getData());
+            session.getRequest().getData().remove(KEY);
+            return closeables == null ? new ArrayList<Closeable>() : closeables;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Closeable> getCloseables(Map<String, Object> data) {
+        return (List<Closeable>) data.get(KEY);
+    }
+}
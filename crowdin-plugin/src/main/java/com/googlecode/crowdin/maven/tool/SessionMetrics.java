@@ -0,0 +1,91 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.apache.maven.execution.MavenSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Metrics of all the crowdin goals of a build session, kept in the data of the session request and logged on a
+ * single line when the {@link SessionCloser} of the session closes them.
+ */
+public final class SessionMetrics implements Closeable {
+
+    /**
+     * Specific to the class realm loading this class, as the data of the request is shared by all the realms.
+     */
+    private static final String KEY = SessionMetrics.class.getName() + "@"
+            + Integer.toHexString(System.identityHashCode(SessionMetrics.class));
+
+    private final BuildMetrics totals = new BuildMetrics();
+    private final Map<String, Integer> executions = new TreeMap<>();
+    private long timeMillis;
+    private int failures;
+
+    private SessionMetrics() {
+    }
+
+    /**
+     * @return the metrics of the session, or null if they can not be logged when it ends
+     */
+    public static SessionMetrics get(MavenSession session) {
+        if (session == null || session.getRequest() == null) {
+            return null;
+        }
+        synchronized (session.getRequest()) {
+            Map<String, Object> data = session.getRequest().getData();
+            SessionMetrics metrics = (SessionMetrics) data.get(KEY);
+            if (metrics == null) {
+                metrics = new SessionMetrics();
+                if (!SessionCloser.register(session, metrics)) {
+                    return null;
+                }
+                data.put(KEY, metrics);
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * Adds the metrics of a goal.
+     */
+    public synchronized void add(String goal, BuildMetrics metrics, boolean success) {
+        Integer count = executions.get(goal);
+        executions.put(goal, count == null ? 1 : count + 1);
+        timeMillis += metrics.getElapsedMillis();
+        totals.addAll(metrics);
+        if (!success) {
+            failures++;
+        }
+    }
+
+    /**
+     * @return a one line summary of the goals of the session
+     */
+    public synchronized String getSummary() {
+        StringBuilder summary = new StringBuilder("crowdin:");
+        boolean first = true;
+        for (Map.Entry<String, Integer> execution : executions.entrySet()) {
+            summary.append(first ? " " : ", ").append(execution.getKey()).append(" x").append(execution.getValue());
+            first = false;
+        }
+        summary.append(" took ").append(timeMillis).append(" ms");
+        if (failures != 0) {
+            summary.append(", ").append(failures).append(" failed");
+        }
+        totals.appendValues(summary);
+        return summary.toString();
+    }
+
+    /**
+     * Logs the summary.
+     */
+    @Override
+    public void close() {
+        Logger logger = LoggerFactory.getLogger(SessionMetrics.class);
+        logger.info(getSummary());
+    }
+}
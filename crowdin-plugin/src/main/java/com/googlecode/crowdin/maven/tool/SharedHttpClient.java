@@ -0,0 +1,100 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.maven.execution.MavenSession;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP clients shared by all the crowdin goals of a build session, so that connections are pooled and kept alive
+ * across modules. The clients of a session are closed when it ends if the plugin is a build extension (see
+ * {@link SessionCloser}), else when a new session starts (embedded or daemon builds).
+ */
+public final class SharedHttpClient {
+
+    private static final long IDLE_TIMEOUT = 30;
+
+    private static WeakReference<Object> currentSession;
+    private static final Map<String, CloseableHttpClient> clients = new HashMap<>();
+
+    private SharedHttpClient() {
+    }
+
+    /**
+     * @param session        the build session, clients are shared as long as it does not change
+     * @param connectTimeout connect timeout in milliseconds
+     * @param readTimeout    socket read timeout in milliseconds
+     * @param maxConnections maximum number of pooled connections
+     */
+    public static synchronized CloseableHttpClient get(final MavenSession session, int connectTimeout,
+                                                       int readTimeout, int maxConnections) {
+        if (currentSession == null || currentSession.get() != session) {
+            closeAll();
+            currentSession = new WeakReference<>(session);
+            SessionCloser.register(session, new Closeable() {
+                @Override
+                public void close() {
+                    closeSession(session);
+                }
+            });
+        }
+        String key = connectTimeout + "/" + readTimeout + "/" + maxConnections;
+        CloseableHttpClient client = clients.get(key);
+        if (client == null) {
+            client = create(connectTimeout, readTimeout, maxConnections);
+            clients.put(key, client);
+        }
+        return client;
+    }
+
+    /**
+     * Closes the clients of the given session, if they were not closed yet.
+     */
+    private static synchronized void closeSession(MavenSession session) {
+        if (currentSession != null && currentSession.get() == session) {
+            closeAll();
+            currentSession = null;
+        }
+    }
+
+    private static CloseableHttpClient create(int connectTimeout, int readTimeout, int maxConnections) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeout)
+                .setConnectionRequestTimeout(connectTimeout)
+                .setSocketTimeout(readTimeout)
+                .build();
+        // gzip/deflate response compression and keep-alive are enabled by default, retries are left to RetryPolicy
+        return HttpClientBuilder.create()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictIdleConnections(IDLE_TIMEOUT, TimeUnit.SECONDS)
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    private static void closeAll() {
+        List<CloseableHttpClient> toClose = new ArrayList<>(clients.values());
+        clients.clear();
+        for (CloseableHttpClient client : toClose) {
+            try {
+                client.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+        }
+    }
+}
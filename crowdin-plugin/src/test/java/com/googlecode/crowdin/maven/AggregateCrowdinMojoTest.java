@@ -0,0 +1,186 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.bundle.MappedResourceBundle;
+import com.googlecode.crowdin.maven.tool.SessionCloser;
+import com.googlecode.crowdin.maven.tool.SessionMetrics;
+import org.apache.maven.model.Resource;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+import static org.junit.Assert.*;
+
+public class AggregateCrowdinMojoTest extends CrowdinTestSupport {
+
+    private MavenProject project;
+
+    @Before
+    public void createTranslations() throws Exception {
+        project = newProject("app", "lib");
+        writeTranslation("en", "lib", "greeting=Hello\nfarewell=Bye\ncolor=Color\n");
+        writeTranslation("en", "app", "title=Title\n");
+        writeTranslation("fr", "lib", "greeting=Bonjour\n");
+        writeTranslation("pt", "lib", "greeting=Ola\nfarewell=Tchau\n");
+        writeTranslation("pt_BR", "lib", "greeting=Oi\n");
+    }
+
+    private void writeTranslation(String lang, String artifactId, String content) throws Exception {
+        write(new File(crowdinDirectory(project), lang + "/" + GROUP_ID + "." + artifactId + "/messages.properties"),
+                content);
+    }
+
+    private AggregateCrowdinMojo aggregate() throws Exception {
+        AggregateCrowdinMojo mojo = configure(new AggregateCrowdinMojo(), project);
+        return aggregate(mojo);
+    }
+
+    private static AggregateCrowdinMojo aggregate(AggregateCrowdinMojo mojo) throws Exception {
+        mojo.execute();
+        return mojo;
+    }
+
+    private File bundle(String name) {
+        return new File(project.getBuild().getDirectory(), "generated-resources/messages-aggregated/" + name);
+    }
+
+    @Test
+    public void mergesLanguagesWithDefaultLanguage() throws Exception {
+        aggregate();
+
+        Map<String, String> french = load(bundle("messages_fr.properties"));
+        assertEquals("Bonjour", french.get("greeting"));
+        assertEquals("Bye", french.get("farewell"));
+        assertEquals("Title", french.get("title"));
+        assertEquals(4, load(bundle("messages_en.properties")).size());
+        assertEquals("fr", load(new File(project.getBuild().getDirectory(), "crowdin/coverage/fr.properties"))
+                .get("greeting"));
+
+        boolean registered = false;
+        for (Object resource : project.getResources()) {
+            registered |= bundle("").getAbsolutePath().startsWith(((Resource) resource).getDirectory());
+        }
+        assertTrue(registered);
+    }
+
+    @Test
+    public void mergesRegionalLanguagesWithBaseLanguage() throws Exception {
+        aggregate();
+
+        Map<String, String> brazilian = load(bundle("messages_pt_BR.properties"));
+        assertEquals("Oi", brazilian.get("greeting"));
+        assertEquals("Tchau", brazilian.get("farewell"));
+        assertEquals("Color", brazilian.get("color"));
+    }
+
+    @Test
+    public void namesBundlesOfHyphenatedLanguagesLikeResourceBundle() throws Exception {
+        writeTranslation("zh", "lib", "greeting=Ni hao\nfarewell=Zai jian\n");
+        writeTranslation("zh-TW", "lib", "greeting=Nin hao\n");
+        aggregate();
+
+        Map<String, String> taiwanese = load(bundle("messages_zh_TW.properties"));
+        assertEquals("Nin hao", taiwanese.get("greeting"));
+        assertEquals("Zai jian", taiwanese.get("farewell"));
+        assertFalse(bundle("messages_zh-TW.properties").exists());
+
+        // In sparse mode, the base language is found through the parent chain
+        AggregateCrowdinMojo mojo = configure(new AggregateCrowdinMojo(), project);
+        mojo.sparseBundles = true;
+        aggregate(mojo);
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{bundle("").toURI().toURL()}, null)) {
+            ResourceBundle bundle = ResourceBundle.getBundle("messages", new Locale("zh", "TW"), loader);
+            assertEquals("Nin hao", bundle.getString("greeting"));
+            assertEquals("Zai jian", bundle.getString("farewell"));
+        }
+    }
+
+    @Test
+    public void writesOnlyChangedLanguages() throws Exception {
+        aggregate();
+        long modified = bundle("messages_pt.properties").lastModified();
+        writeTranslation("fr", "lib", "greeting=Salut\n");
+
+        AggregateCrowdinMojo mojo = aggregate();
+
+        assertEquals(1, mojo.metrics.getCounter("languages.aggregated"));
+        assertEquals(3, mojo.metrics.getCounter("languages.unchanged"));
+        assertEquals("Salut", load(bundle("messages_fr.properties")).get("greeting"));
+        assertEquals(modified, bundle("messages_pt.properties").lastModified());
+    }
+
+    @Test
+    public void aggregatesRegionalLanguageWhenBaseLanguageChanges() throws Exception {
+        aggregate();
+        writeTranslation("pt", "lib", "greeting=Ola\nfarewell=Adeus\n");
+
+        aggregate();
+
+        assertEquals("Adeus", load(bundle("messages_pt_BR.properties")).get("farewell"));
+    }
+
+    @Test
+    public void deletesBundlesOfRemovedLanguages() throws Exception {
+        aggregate();
+        File fr = new File(crowdinDirectory(project), "fr");
+        assertTrue(new File(fr, GROUP_ID + ".lib/messages.properties").delete());
+        assertTrue(new File(fr, GROUP_ID + ".lib").delete());
+        assertTrue(fr.delete());
+
+        aggregate();
+
+        assertFalse(bundle("messages_fr.properties").exists());
+        assertTrue(bundle("messages_pt.properties").exists());
+    }
+
+    @Test
+    public void writesSparseBundles() throws Exception {
+        AggregateCrowdinMojo mojo = configure(new AggregateCrowdinMojo(), project);
+        mojo.sparseBundles = true;
+        aggregate(mojo);
+
+        assertEquals(4, load(bundle("messages.properties")).size());
+        assertEquals(1, load(bundle("messages_fr.properties")).size());
+        // The base language is resolved at runtime
+        assertEquals(1, load(bundle("messages_pt_BR.properties")).size());
+    }
+
+    @Test
+    public void writesBinaryBundles() throws Exception {
+        AggregateCrowdinMojo mojo = configure(new AggregateCrowdinMojo(), project);
+        mojo.binaryBundles = true;
+        aggregate(mojo);
+
+        MappedResourceBundle french = MappedResourceBundle.open(bundle("messages_fr.bin"));
+        assertEquals("Bonjour", french.getString("greeting"));
+        assertEquals("Bye", french.getString("farewell"));
+        assertEquals(4, french.size());
+
+        // Dropped when disabled again
+        aggregate();
+        assertFalse(bundle("messages_fr.bin").exists());
+    }
+
+    @Test
+    public void logsOneMetricsSummaryPerSession() throws Exception {
+        newSession(project);
+        SessionCloser.open(session);
+        for (int i = 0; i < 2; i++) {
+            AggregateCrowdinMojo mojo = configure(new AggregateCrowdinMojo(), project);
+            mojo.metricsSummary = true;
+            aggregate(mojo);
+        }
+
+        List<Closeable> closeables = SessionCloser.close(session);
+        assertEquals(1, closeables.size());
+        assertTrue(((SessionMetrics) closeables.get(0)).getSummary().startsWith("crowdin: aggregate x2 took "));
+    }
+}
@@ -0,0 +1,305 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.ArchiveCache;
+import com.googlecode.crowdin.maven.tool.PropertiesReader;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.manager.WagonManager;
+import org.apache.maven.artifact.resolver.filter.ArtifactFilter;
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.dependency.graph.DependencyGraphBuilder;
+import org.apache.maven.shared.dependency.graph.DependencyNode;
+import org.apache.maven.shared.dependency.graph.internal.DefaultDependencyNode;
+import org.apache.maven.wagon.authentication.AuthenticationInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the goals outside of Maven against a {@link FakeCrowdinServer}. Mojos are configured with the default values
+ * of the generated plugin descriptor, in projects created in a temporary folder.
+ */
+public abstract class CrowdinTestSupport {
+
+    protected static final String GROUP_ID = "com.example";
+
+    private static final String SERVER_ID = "crowdin";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    protected FakeCrowdinServer server;
+
+    protected File localRepository;
+
+    protected MavenSession session;
+
+    /**
+     * Number of dependency graphs built by pull.
+     */
+    protected final AtomicInteger dependencyGraphBuilds = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        server = new FakeCrowdinServer();
+        localRepository = temp.newFolder("repository");
+        ArchiveCache.clear();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    /**
+     * Creates a project of {@link #GROUP_ID} in its own folder, whose compile dependencies are the given artifacts of
+     * the same group. Its dependency graph only holds those artifacts.
+     */
+    protected MavenProject newProject(String artifactId, String... dependencies) throws IOException {
+        File basedir = temp.newFolder(artifactId);
+        Model model = new Model();
+        model.setModelVersion("4.0.0");
+        model.setGroupId(GROUP_ID);
+        model.setArtifactId(artifactId);
+        model.setVersion("1.0");
+        for (String dependency : dependencies) {
+            Dependency modelDependency = new Dependency();
+            modelDependency.setGroupId(GROUP_ID);
+            modelDependency.setArtifactId(dependency);
+            modelDependency.setVersion("1.0");
+            model.addDependency(modelDependency);
+        }
+        Build build = new Build();
+        build.setDirectory(new File(basedir, "target").getAbsolutePath());
+        model.setBuild(build);
+        MavenProject project = new MavenProject(model);
+        project.setFile(new File(basedir, "pom.xml"));
+        project.setArtifact(newArtifact(artifactId));
+        Set<Artifact> artifacts = new LinkedHashSet<>();
+        for (String dependency : dependencies) {
+            artifacts.add(newArtifact(dependency));
+        }
+        project.setArtifacts(artifacts);
+        return project;
+    }
+
+    private static Artifact newArtifact(String artifactId) {
+        return new DefaultArtifact(GROUP_ID, artifactId, "1.0", Artifact.SCOPE_COMPILE, "jar", null,
+                new DefaultArtifactHandler("jar"));
+    }
+
+    /**
+     * Starts a new build session with the given projects, as a new Maven invocation would.
+     */
+    protected MavenSession newSession(MavenProject... projects) {
+        session = new MavenSession(null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult(),
+                Arrays.asList(projects));
+        return session;
+    }
+
+    /**
+     * Configures a mojo for a project of the current session, started with this project if there is none.
+     */
+    protected <T extends AbstractMojo> T configure(T mojo, MavenProject project) throws Exception {
+        if (session == null) {
+            newSession(project);
+        }
+        applyDefaults(mojo, project);
+        setField(mojo, "project", project);
+        setField(mojo, "session", session);
+        mojo.setLog(quietLog());
+        if (mojo instanceof PullCrowdinMojo) {
+            ((PullCrowdinMojo) mojo).dependencyGraphBuilder = dependencyGraphBuilder(project);
+        }
+        if (mojo instanceof AbstractCrowdinMojo) {
+            AbstractCrowdinMojo crowdinMojo = (AbstractCrowdinMojo) mojo;
+            crowdinMojo.wagonManager = wagonManager();
+            crowdinMojo.crowdinServerId = SERVER_ID;
+            crowdinMojo.apiUrl = server.getApiUrl();
+            crowdinMojo.retryDelay = 10;
+            crowdinMojo.retryMaxDelay = 100;
+        }
+        return mojo;
+    }
+
+    /**
+     * Builds the graph of the resolved dependencies of the project, counting the graphs built.
+     */
+    private DependencyGraphBuilder dependencyGraphBuilder(final MavenProject project) {
+        return new DependencyGraphBuilder() {
+            @Override
+            public DependencyNode buildDependencyGraph(ProjectBuildingRequest buildingRequest, ArtifactFilter filter) {
+                dependencyGraphBuilds.incrementAndGet();
+                DefaultDependencyNode root = new DefaultDependencyNode(project.getArtifact());
+                List<DependencyNode> children = new ArrayList<>();
+                for (Object artifact : project.getArtifacts()) {
+                    if (filter.include((Artifact) artifact)) {
+                        DefaultDependencyNode child = new DefaultDependencyNode(root, (Artifact) artifact, null, null,
+                                null);
+                        child.setChildren(Collections.<DependencyNode>emptyList());
+                        children.add(child);
+                    }
+                }
+                root.setChildren(children);
+                return root;
+            }
+        };
+    }
+
+    protected static File messagesDirectory(MavenProject project) {
+        return new File(project.getBasedir(), "src/main/messages");
+    }
+
+    protected static File crowdinDirectory(MavenProject project) {
+        return new File(project.getBasedir(), "src/main/crowdin");
+    }
+
+    protected static void write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    protected static Map<String, String> load(File file) throws IOException {
+        return PropertiesReader.load(file);
+    }
+
+    /**
+     * Sets the parameters of the mojo to the default values of its descriptor, resolving the project and settings
+     * expressions.
+     */
+    private void applyDefaults(AbstractMojo mojo, MavenProject project) throws Exception {
+        Element configuration = getConfiguration(mojo.getClass().getName());
+        NodeList parameters = configuration.getChildNodes();
+        for (int i = 0; i < parameters.getLength(); i++) {
+            Node node = parameters.item(i);
+            if (!(node instanceof Element) || !((Element) node).hasAttribute("default-value")) {
+                continue;
+            }
+            Element parameter = (Element) node;
+            String value = parameter.getAttribute("default-value")
+                    .replace("${project.basedir}", project.getBasedir().getAbsolutePath())
+                    .replace("${project.build.directory}", project.getBuild().getDirectory())
+                    .replace("${settings.localRepository}", localRepository.getAbsolutePath());
+            if (value.contains("${")) {
+                continue;
+            }
+            Field field = getField(mojo.getClass(), parameter.getTagName());
+            Class<?> type = field.getType();
+            if (type == boolean.class) {
+                field.setBoolean(mojo, Boolean.parseBoolean(value));
+            } else if (type == int.class) {
+                field.setInt(mojo, Integer.parseInt(value));
+            } else if (type == long.class) {
+                field.setLong(mojo, Long.parseLong(value));
+            } else if (type == File.class) {
+                field.set(mojo, new File(value));
+            } else {
+                field.set(mojo, value);
+            }
+        }
+    }
+
+    private static Element getConfiguration(String implementation) throws Exception {
+        Document descriptor;
+        try (InputStream in = CrowdinTestSupport.class.getResourceAsStream("/META-INF/maven/plugin.xml")) {
+            if (in == null) {
+                throw new IllegalStateException("No plugin descriptor, run the process-classes phase");
+            }
+            descriptor = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(in);
+        }
+        NodeList mojos = descriptor.getElementsByTagName("mojo");
+        for (int i = 0; i < mojos.getLength(); i++) {
+            Element mojo = (Element) mojos.item(i);
+            if (implementation.equals(mojo.getElementsByTagName("implementation").item(0).getTextContent())) {
+                return (Element) mojo.getElementsByTagName("configuration").item(0);
+            }
+        }
+        throw new IllegalStateException(implementation + " is not in the plugin descriptor");
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        getField(target.getClass(), name).set(target, value);
+    }
+
+    private static Field getField(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            try {
+                Field field = current.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // declared by a superclass
+            }
+        }
+        throw new NoSuchFieldException(name + " in " + type);
+    }
+
+    private static WagonManager wagonManager() {
+        final AuthenticationInfo authenticationInfo = new AuthenticationInfo();
+        authenticationInfo.setUserName(FakeCrowdinServer.PROJECT);
+        authenticationInfo.setPassword(FakeCrowdinServer.KEY);
+        return (WagonManager) Proxy.newProxyInstance(CrowdinTestSupport.class.getClassLoader(),
+                new Class<?>[]{WagonManager.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+                        if (method.getDeclaringClass() == Object.class) {
+                            return method.invoke(this, args);
+                        }
+                        if ("getAuthenticationInfo".equals(method.getName()) && SERVER_ID.equals(args[0])) {
+                            return authenticationInfo;
+                        }
+                        if (method.getReturnType() == boolean.class) {
+                            return false;
+                        }
+                        return null;
+                    }
+                });
+    }
+
+    /**
+     * @return a log dropping every message, set -Dcrowdin.test.log=true to see them
+     */
+    private static Log quietLog() {
+        if (Boolean.getBoolean("crowdin.test.log")) {
+            return new org.apache.maven.plugin.logging.SystemStreamLog();
+        }
+        return (Log) Proxy.newProxyInstance(CrowdinTestSupport.class.getClassLoader(), new Class<?>[]{Log.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+                        if (method.getDeclaringClass() == Object.class) {
+                            return method.invoke(this, args);
+                        }
+                        return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+                    }
+                });
+    }
+}
@@ -0,0 +1,144 @@
+package com.googlecode.crowdin.maven;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs push-reactor, pull and aggregate against the fake crowdin server on synthetic reactors of increasing size,
+ * then runs them again without any change, and measures the wall time, peak heap and requests of each goal. Not part
+ * of the tests, run it with {@code mvn test -Pbenchmark}. Properties:
+ * <ul>
+ * <li>{@code crowdin.benchmark.sizes}: the sizes, as languages x modules x keys per module, separated by commas</li>
+ * <li>{@code crowdin.benchmark.latency}: latency of the server in milliseconds</li>
+ * <li>{@code crowdin.benchmark.rateLimit}: maximum requests per second of the server, 0 for none</li>
+ * </ul>
+ * The results are written in target/crowdin-benchmark.csv, one line per goal.
+ */
+public class EndToEndBenchmark extends CrowdinTestSupport {
+
+    private static final String HEADER = "languages,modules,keys,goal,millis,peakHeapMB,requests,kBytes";
+
+    private final List<String> results = new ArrayList<>();
+
+    @Test
+    public void run() throws Exception {
+        String sizes = System.getProperty("crowdin.benchmark.sizes", "2x2x100,5x10x500,10x25x1000");
+        long latency = Long.getLong("crowdin.benchmark.latency", 5);
+        int rateLimit = Integer.getInteger("crowdin.benchmark.rateLimit", 0);
+
+        int run = 0;
+        for (String size : sizes.split(",")) {
+            String[] dimensions = size.trim().split("x");
+            server.close();
+            server = new FakeCrowdinServer();
+            server.setLatency(latency);
+            server.setRateLimit(rateLimit);
+            run(run++, Integer.parseInt(dimensions[0]), Integer.parseInt(dimensions[1]),
+                    Integer.parseInt(dimensions[2]));
+        }
+
+        File report = new File("target/crowdin-benchmark.csv");
+        report.getParentFile().mkdirs();
+        StringBuilder csv = new StringBuilder(HEADER).append('\n');
+        for (String result : results) {
+            csv.append(result).append('\n');
+        }
+        Files.write(report.toPath(), csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void run(int run, int languages, int modules, int keys) throws Exception {
+        List<MavenProject> projects = new ArrayList<>();
+        String[] dependencies = new String[modules];
+        for (int i = 0; i < modules; i++) {
+            dependencies[i] = "r" + run + "-module" + i;
+            MavenProject module = newProject(dependencies[i]);
+            write(new File(messagesDirectory(module), "messages.properties"), messages(dependencies[i], "", keys));
+            projects.add(module);
+            for (int l = 0; l < languages; l++) {
+                String language = l == 0 ? "en" : "lang" + l;
+                server.addTranslation(language, GROUP_ID + "." + dependencies[i], "messages.properties",
+                        messages(dependencies[i], language, keys));
+            }
+        }
+        final MavenProject app = newProject("r" + run + "-app", dependencies);
+        createDirectory(messagesDirectory(app));
+        projects.add(app);
+
+        for (String pass : new String[]{"", " (unchanged)"}) {
+            newSession(projects.toArray(new MavenProject[0]));
+            final MavenProject root = projects.get(0);
+            measure(languages, modules, keys, "push-reactor" + pass, new Goal() {
+                @Override
+                public void run() throws Exception {
+                    configure(new PushReactorCrowdinMojo(), root).execute();
+                }
+            });
+            measure(languages, modules, keys, "pull" + pass, new Goal() {
+                @Override
+                public void run() throws Exception {
+                    configure(new PullCrowdinMojo(), app).execute();
+                }
+            });
+            measure(languages, modules, keys, "aggregate" + pass, new Goal() {
+                @Override
+                public void run() throws Exception {
+                    configure(new AggregateCrowdinMojo(), app).execute();
+                }
+            });
+        }
+    }
+
+    private interface Goal {
+        void run() throws Exception;
+    }
+
+    private void measure(int languages, int modules, int keys, String goal, Goal run) throws Exception {
+        server.resetCounts();
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long start = System.nanoTime();
+        run.run();
+        long millis = (System.nanoTime() - start) / 1000000;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+        long peakHeapMB = peakHeap / (1024 * 1024);
+        int requests = server.getRequestCount(null);
+        long kBytes = (server.getBytesReceived() + server.getBytesSent()) / 1024;
+
+        results.add(languages + "," + modules + "," + keys + "," + goal + "," + millis + "," + peakHeapMB + ","
+                + requests + "," + kBytes);
+    }
+
+    private static String messages(String module, String language, int keys) {
+        StringBuilder messages = new StringBuilder(keys * 48);
+        for (int i = 0; i < keys; i++) {
+            messages.append(module).append(".key").append(i).append('=').append(language).append(" message ")
+                    .append(i).append('\n');
+        }
+        return messages.toString();
+    }
+
+    private static void createDirectory(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Failed to create " + directory);
+        }
+    }
+}
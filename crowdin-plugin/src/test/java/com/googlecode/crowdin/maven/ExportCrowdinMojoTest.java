@@ -0,0 +1,83 @@
+package com.googlecode.crowdin.maven;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ExportCrowdinMojoTest extends CrowdinTestSupport {
+
+    private ExportCrowdinMojo configureExport() throws Exception {
+        ExportCrowdinMojo mojo = configure(new ExportCrowdinMojo(), newProject("app"));
+        mojo.exportPollInterval = 10;
+        return mojo;
+    }
+
+    @Test
+    public void exports() throws Exception {
+        ExportCrowdinMojo mojo = configureExport();
+        mojo.execute();
+
+        assertEquals(1, server.getRequestCount("export"));
+        assertEquals(0, server.getRequestCount("export-status"));
+        assertEquals(1, mojo.metrics.getCounter("exports"));
+    }
+
+    @Test
+    public void waitsForAsynchronousExport() throws Exception {
+        server.setExportDuration(2);
+        ExportCrowdinMojo mojo = configureExport();
+        mojo.exportAsync = true;
+        mojo.execute();
+
+        assertEquals(1, server.getRequestCount("export"));
+        assertEquals(3, server.getRequestCount("export-status"));
+        assertEquals(3, mojo.metrics.getCounter("polls"));
+    }
+
+    @Test
+    public void failsWhenExportDoesNotFinish() throws Exception {
+        server.setExportDuration(1000);
+        ExportCrowdinMojo mojo = configureExport();
+        mojo.exportAsync = true;
+        mojo.exportTimeout = 200;
+        try {
+            mojo.execute();
+            fail("The export should have timed out");
+        } catch (MojoExecutionException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("did not finish"));
+        }
+    }
+
+    @Test
+    public void exportsWhenLastExportIsOld() throws Exception {
+        ExportCrowdinMojo mojo = configureExport();
+        mojo.exportMaxAge = 60;
+        mojo.execute();
+
+        assertEquals(1, server.getRequestCount("export-status"));
+        assertEquals(1, server.getRequestCount("export"));
+    }
+
+    @Test
+    public void doesNotRetryExport() throws Exception {
+        server.failNext("export", 1, 502);
+        ExportCrowdinMojo mojo = configureExport();
+        try {
+            mojo.execute();
+            fail("The export should have failed");
+        } catch (MojoExecutionException e) {
+            assertEquals(1, server.getRequestCount("export"));
+        }
+    }
+
+    @Test
+    public void retriesRateLimitedExport() throws Exception {
+        server.failNext("export", 1, 429);
+        ExportCrowdinMojo mojo = configureExport();
+        mojo.execute();
+
+        assertEquals(2, server.getRequestCount("export"));
+        assertEquals(1, mojo.metrics.getCounter("retries"));
+    }
+}
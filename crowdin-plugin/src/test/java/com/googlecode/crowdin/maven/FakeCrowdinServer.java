@@ -0,0 +1,515 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.Hashing;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * An in-memory stand-in for the crowdin v1 API of a single project, serving info, add-directory, add-file,
+ * update-file, delete-file, export, export-status, status and the download archives. Requests can be slowed down,
+ * rate limited or made to fail, and are counted by API method.
+ */
+public class FakeCrowdinServer implements Closeable {
+
+    public static final String PROJECT = "test-project";
+
+    public static final String KEY = "test-key";
+
+    private static final String PREFIX = "/api/project/" + PROJECT + "/";
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    private final Map<String, byte[]> files = new TreeMap<>();
+    private final Map<String, Integer> revisions = new HashMap<>();
+    private final Set<String> directories = new TreeSet<>();
+    private final Map<String, Map<String, byte[]>> translations = new TreeMap<>();
+    private int revision;
+
+    private final ConcurrentMap<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    private volatile long latencyMillis;
+    private volatile int requestsPerSecond;
+    private final Deque<Long> recentRequests = new ArrayDeque<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile String failureMethod;
+    private volatile int failureStatus;
+    private final AtomicInteger exportPolls = new AtomicInteger();
+    private volatile int exportDuration;
+
+    public FakeCrowdinServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    serve(exchange);
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return the base URL of the API projects, for the crowdinApiUrl parameter
+     */
+    public String getApiUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort()
+                + "/api/project/";
+    }
+
+    /**
+     * Delays each response by the given time.
+     */
+    public void setLatency(long millis) {
+        latencyMillis = millis;
+    }
+
+    /**
+     * Answers 429 with a Retry-After of one second to the requests beyond the given number per second, 0 for no
+     * limit.
+     */
+    public void setRateLimit(int perSecond) {
+        requestsPerSecond = perSecond;
+    }
+
+    /**
+     * Answers the given HTTP status to the next requests of an API method.
+     *
+     * @param method the API method, null for any of them
+     */
+    public void failNext(String method, int count, int status) {
+        failureMethod = method;
+        failureStatus = status;
+        failures.set(count);
+    }
+
+    /**
+     * Makes asynchronous exports last the given number of export-status requests.
+     */
+    public void setExportDuration(int polls) {
+        exportDuration = polls;
+    }
+
+    public synchronized void addTranslation(String language, String mavenId, String name, String content) {
+        Map<String, byte[]> entries = translations.get(language);
+        if (entries == null) {
+            entries = new TreeMap<>();
+            translations.put(language, entries);
+        }
+        entries.put(mavenId + "/" + name, content.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    public synchronized void removeTranslations(String language) {
+        translations.remove(language);
+    }
+
+    /**
+     * Uploads a file as if it was pushed from somewhere else.
+     */
+    public synchronized void putFile(String path, String content) {
+        String folder = path.substring(0, path.lastIndexOf('/'));
+        directories.add(folder);
+        files.put(path, content.getBytes(StandardCharsets.ISO_8859_1));
+        revisions.put(path, ++revision);
+    }
+
+    public synchronized String getFile(String path) {
+        byte[] content = files.get(path);
+        return content == null ? null : new String(content, StandardCharsets.ISO_8859_1);
+    }
+
+    public synchronized Set<String> getFiles() {
+        return new TreeSet<>(files.keySet());
+    }
+
+    public synchronized Set<String> getDirectories() {
+        return new TreeSet<>(directories);
+    }
+
+    /**
+     * @param method the API method, such as info or download/all.zip, null for all of them
+     */
+    public int getRequestCount(String method) {
+        if (method == null) {
+            int total = 0;
+            for (AtomicInteger count : requests.values()) {
+                total += count.get();
+            }
+            return total;
+        }
+        AtomicInteger count = requests.get(method);
+        return count == null ? 0 : count.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public void resetCounts() {
+        requests.clear();
+        bytesReceived.set(0);
+        bytesSent.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        byte[] body = readFully(exchange.getRequestBody());
+        bytesReceived.addAndGet(body.length);
+        String path = exchange.getRequestURI().getPath();
+        if (!path.startsWith(PREFIX)) {
+            send(exchange, 404, error(8, "Project not found"));
+            return;
+        }
+        String method = path.substring(PREFIX.length());
+        count(method);
+
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        if ((failureMethod == null || failureMethod.equals(method)) && decrement(failures)) {
+            send(exchange, failureStatus, new byte[0]);
+            return;
+        }
+        if (isRateLimited()) {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 429, error(55, "Too many requests"));
+            return;
+        }
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        if (!KEY.equals(query.get("key"))) {
+            send(exchange, 401, error(3, "API key is not valid"));
+            return;
+        }
+
+        Map<String, byte[]> parts = parseMultipart(exchange, body);
+        synchronized (this) {
+            if ("info".equals(method)) {
+                send(exchange, 200, info());
+            } else if ("add-directory".equals(method)) {
+                directories.add(text(parts.get("name")));
+                send(exchange, 200, success());
+            } else if ("add-file".equals(method) || "update-file".equals(method)) {
+                boolean add = "add-file".equals(method);
+                for (Map.Entry<String, byte[]> part : parts.entrySet()) {
+                    String name = part.getKey();
+                    if (!name.startsWith("files[")) {
+                        continue;
+                    }
+                    String file = name.substring("files[".length(), name.length() - 1);
+                    if (add && files.containsKey(file)) {
+                        send(exchange, 200, error(5, "File " + file + " already exists"));
+                        return;
+                    } else if (!add && !files.containsKey(file)) {
+                        send(exchange, 200, error(8, "File " + file + " not found"));
+                        return;
+                    } else if (!directories.contains(file.substring(0, Math.max(0, file.lastIndexOf('/'))))) {
+                        send(exchange, 200, error(17, "Directory of " + file + " not found"));
+                        return;
+                    }
+                }
+                for (Map.Entry<String, byte[]> part : parts.entrySet()) {
+                    String name = part.getKey();
+                    if (name.startsWith("files[")) {
+                        String file = name.substring("files[".length(), name.length() - 1);
+                        files.put(file, part.getValue());
+                        revisions.put(file, ++revision);
+                    }
+                }
+                send(exchange, 200, success());
+            } else if ("delete-file".equals(method)) {
+                String file = text(parts.get("file"));
+                if (files.remove(file) == null) {
+                    send(exchange, 200, error(8, "File " + file + " not found"));
+                } else {
+                    revisions.remove(file);
+                    send(exchange, 200, success());
+                }
+            } else if ("export".equals(method)) {
+                if ("1".equals(query.get("async")) && exportDuration > 0) {
+                    exportPolls.set(exportDuration);
+                    send(exchange, 200, xml("<success status=\"in-progress\"/>"));
+                } else {
+                    send(exchange, 200, xml("<success status=\"built\"/>"));
+                }
+            } else if ("export-status".equals(method)) {
+                boolean running = decrement(exportPolls);
+                send(exchange, 200, xml("<success><status>" + (running ? "in-progress" : "finished")
+                        + "</status><progress>" + (running ? 50 : 100) + "</progress>"
+                        + "<last_build>2013-01-31T13:33:14+0000</last_build></success>"));
+            } else if ("status".equals(method)) {
+                StringBuilder status = new StringBuilder("<status>");
+                for (String language : translations.keySet()) {
+                    status.append("<language><name>").append(language).append("</name><code>").append(language)
+                            .append("</code><phrases>10</phrases></language>");
+                }
+                send(exchange, 200, xml(status.append("</status>").toString()));
+            } else if (method.startsWith("download/") && method.endsWith(".zip")) {
+                String language = method.substring("download/".length(), method.length() - ".zip".length());
+                byte[] archive = archive(language);
+                if (archive == null) {
+                    send(exchange, 404, error(8, "Language not found"));
+                    return;
+                }
+                String etag = "\"" + Hashing.sha256(new String(archive, StandardCharsets.ISO_8859_1)) + "\"";
+                exchange.getResponseHeaders().set("ETag", etag);
+                if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                    return;
+                }
+                exchange.getResponseHeaders().set("Content-Type", "application/zip");
+                send(exchange, 200, archive);
+            } else {
+                send(exchange, 404, error(0, "Unknown method " + method));
+            }
+        }
+    }
+
+    private void count(String method) {
+        AtomicInteger count = requests.get(method);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger();
+            count = requests.putIfAbsent(method, newCount);
+            if (count == null) {
+                count = newCount;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * @return true if the counter was positive before being decremented
+     */
+    private static boolean decrement(AtomicInteger counter) {
+        while (true) {
+            int value = counter.get();
+            if (value <= 0) {
+                return false;
+            }
+            if (counter.compareAndSet(value, value - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean isRateLimited() {
+        int limit = requestsPerSecond;
+        if (limit <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (recentRequests) {
+            while (!recentRequests.isEmpty() && recentRequests.peekFirst() <= now - 1000) {
+                recentRequests.removeFirst();
+            }
+            if (recentRequests.size() >= limit) {
+                return true;
+            }
+            recentRequests.addLast(now);
+            return false;
+        }
+    }
+
+    private byte[] info() {
+        StringBuilder xml = new StringBuilder("<info><files>");
+        appendItems(xml, "");
+        xml.append("</files><details><name>").append(PROJECT).append("</name></details></info>");
+        return xml(xml.toString());
+    }
+
+    private void appendItems(StringBuilder xml, String folder) {
+        String prefix = folder.isEmpty() ? "" : folder + "/";
+        for (String directory : directories) {
+            if (directory.startsWith(prefix) && directory.indexOf('/', prefix.length()) == -1
+                    && !directory.equals(folder)) {
+                xml.append("<item><node_type>directory</node_type><name>")
+                        .append(directory.substring(prefix.length())).append("</name><files>");
+                appendItems(xml, directory);
+                xml.append("</files></item>");
+            }
+        }
+        for (String file : files.keySet()) {
+            if (file.startsWith(prefix) && file.indexOf('/', prefix.length()) == -1) {
+                xml.append("<item><node_type>file</node_type><name>").append(file.substring(prefix.length()))
+                        .append("</name><last_revision>").append(revisions.get(file)).append("</last_revision></item>");
+            }
+        }
+    }
+
+    /**
+     * @return the archive of a language, or of all of them for "all", with constant entry times so that the same
+     * translations always give the same bytes
+     */
+    private byte[] archive(String language) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (Map.Entry<String, Map<String, byte[]>> languageEntries : translations.entrySet()) {
+                if (!"all".equals(language) && !language.equals(languageEntries.getKey())) {
+                    continue;
+                }
+                String prefix = "all".equals(language) ? languageEntries.getKey() + "/" : "";
+                for (Map.Entry<String, byte[]> entry : languageEntries.getValue().entrySet()) {
+                    ZipEntry zipEntry = new ZipEntry(prefix + entry.getKey());
+                    zipEntry.setTime(0);
+                    zip.putNextEntry(zipEntry);
+                    zip.write(entry.getValue());
+                    zip.closeEntry();
+                }
+            }
+        }
+        if (!"all".equals(language) && !translations.containsKey(language)) {
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    private void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        // Counted before the client can read the body, so that the counts are final once a goal returns
+        bytesSent.addAndGet(body.length);
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static byte[] success() {
+        return xml("<success/>");
+    }
+
+    private static byte[] error(int code, String message) {
+        return xml("<error><code>" + code + "</code><message>" + message + "</message></error>");
+    }
+
+    private static byte[] xml(String xml) {
+        return ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + xml).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseQuery(String query) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query != null) {
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                            URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+                }
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * @return the parts of a multipart/form-data body by name
+     */
+    private static Map<String, byte[]> parseMultipart(HttpExchange exchange, byte[] body) {
+        Map<String, byte[]> parts = new LinkedHashMap<>();
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.startsWith("multipart/form-data")) {
+            return parts;
+        }
+        String boundary = null;
+        for (String parameter : contentType.split(";")) {
+            parameter = parameter.trim();
+            if (parameter.startsWith("boundary=")) {
+                boundary = parameter.substring("boundary=".length()).replace("\"", "");
+            }
+        }
+        if (boundary == null) {
+            return parts;
+        }
+        byte[] delimiter = ("--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        int start = indexOf(body, delimiter, 0);
+        while (start >= 0) {
+            int headersStart = start + delimiter.length + 2;
+            if (headersStart > body.length || body[start + delimiter.length] == '-') {
+                break;
+            }
+            int headersEnd = indexOf(body, "\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1), headersStart);
+            int next = indexOf(body, delimiter, headersEnd);
+            if (headersEnd < 0 || next < 0) {
+                break;
+            }
+            String headers = new String(body, headersStart, headersEnd - headersStart, StandardCharsets.UTF_8);
+            String name = null;
+            for (String header : headers.split("\r\n")) {
+                int nameStart = header.indexOf("name=\"");
+                if (header.toLowerCase(Locale.ROOT).startsWith("content-disposition") && nameStart >= 0) {
+                    name = header.substring(nameStart + 6, header.indexOf('"', nameStart + 6));
+                }
+            }
+            if (name != null) {
+                parts.put(name, Arrays.copyOfRange(body, headersEnd + 4, next - 2));
+            }
+            start = next;
+        }
+        return parts;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern, int from) {
+        outer:
+        for (int i = Math.max(0, from); i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,214 @@
+package com.googlecode.crowdin.maven;
+
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class PullCrowdinMojoTest extends CrowdinTestSupport {
+
+    private static final String LIB = GROUP_ID + ".lib";
+
+    private MavenProject project;
+
+    @Before
+    public void createProject() throws Exception {
+        project = newProject("app", "lib");
+        assertTrue(messagesDirectory(project).mkdirs());
+        server.addTranslation("fr", LIB, "messages.properties", "greeting=Bonjour\n");
+        server.addTranslation("de", LIB, "messages.properties", "greeting=Hallo\n");
+        server.addTranslation("fr", GROUP_ID + ".other", "messages.properties", "greeting=Salut\n");
+    }
+
+    private PullCrowdinMojo configurePull(String... languages) throws Exception {
+        PullCrowdinMojo mojo = configure(new PullCrowdinMojo(), project);
+        if (languages.length > 0) {
+            mojo.languages = Arrays.asList(languages);
+        }
+        return mojo;
+    }
+
+    /**
+     * Pulls in a new build.
+     */
+    private PullCrowdinMojo pull(String... languages) throws Exception {
+        newSession(project);
+        PullCrowdinMojo mojo = configurePull(languages);
+        mojo.execute();
+        return mojo;
+    }
+
+    private File translation(String language) {
+        return new File(crowdinDirectory(project), language + "/" + LIB + "/messages.properties");
+    }
+
+    @Test
+    public void extractsTranslationsOfDependencies() throws Exception {
+        PullCrowdinMojo mojo = pull();
+
+        assertEquals(Collections.singletonMap("greeting", "Bonjour"), load(translation("fr")));
+        assertEquals(Collections.singletonMap("greeting", "Hallo"), load(translation("de")));
+        assertFalse(new File(crowdinDirectory(project), "fr/" + GROUP_ID + ".other").exists());
+        assertTrue(new File(crowdinDirectory(project), ".crowdin-pull").isFile());
+        assertEquals(2, mojo.metrics.getCounter("files.updated"));
+    }
+
+    @Test
+    public void reusesDependenciesOfPreviousPull() throws Exception {
+        pull();
+        pull();
+        assertEquals(1, dependencyGraphBuilds.get());
+
+        project.getDependencies().clear();
+        pull();
+        assertEquals(2, dependencyGraphBuilds.get());
+    }
+
+    @Test
+    public void skipsUnchangedArchive() throws Exception {
+        pull();
+        long modified = translation("fr").lastModified();
+        server.resetCounts();
+
+        PullCrowdinMojo mojo = pull();
+
+        assertEquals(1, server.getRequestCount("download/all.zip"));
+        assertEquals(0, server.getBytesSent());
+        assertEquals(1, mojo.metrics.getCounter("archives.unchanged"));
+        assertEquals(modified, translation("fr").lastModified());
+    }
+
+    @Test
+    public void skipsUnchangedArchiveWithoutSharing() throws Exception {
+        PullCrowdinMojo mojo = configurePull();
+        mojo.shareArchives = false;
+        mojo.execute();
+        server.resetCounts();
+
+        mojo = configurePull();
+        mojo.shareArchives = false;
+        mojo.execute();
+
+        assertEquals(0, server.getBytesSent());
+        assertEquals(1, mojo.metrics.getCounter("archives.unchanged"));
+    }
+
+    @Test
+    public void deletesLanguagesRemovedFromCrowdin() throws Exception {
+        pull();
+        server.removeTranslations("de");
+
+        pull();
+
+        assertTrue(translation("fr").isFile());
+        assertFalse(new File(crowdinDirectory(project), "de").exists());
+    }
+
+    @Test
+    public void sharesArchiveBetweenModules() throws Exception {
+        MavenProject other = newProject("other", "lib");
+        assertTrue(messagesDirectory(other).mkdirs());
+        newSession(project, other);
+
+        configurePull().execute();
+        PullCrowdinMojo otherPull = configure(new PullCrowdinMojo(), other);
+        otherPull.execute();
+
+        assertEquals(1, server.getRequestCount("download/all.zip"));
+        assertEquals(1, otherPull.metrics.getCounter("archives.shared"));
+        assertTrue(new File(crowdinDirectory(other), "fr/" + LIB + "/messages.properties").isFile());
+    }
+
+    @Test
+    public void keepsSharedArchiveBetweenBuilds() throws Exception {
+        pull();
+        File cache = new File(localRepository, ".cache/crowdin");
+        assertEquals(1, cache.list(new ZipFilter()).length);
+
+        // Another build, whose project was cleaned
+        assertTrue(new File(crowdinDirectory(project), ".crowdin-pull").delete());
+        server.resetCounts();
+        pull();
+
+        assertEquals(1, server.getRequestCount("download/all.zip"));
+        assertEquals(0, server.getBytesSent());
+        assertTrue(translation("fr").isFile());
+        assertEquals(1, cache.list(new ZipFilter()).length);
+    }
+
+    @Test
+    public void pullsEachLanguage() throws Exception {
+        PullCrowdinMojo mojo = configurePull();
+        mojo.pullPerLanguage = true;
+        mojo.execute();
+
+        assertEquals(1, server.getRequestCount("status"));
+        assertEquals(1, server.getRequestCount("download/fr.zip"));
+        assertEquals(1, server.getRequestCount("download/de.zip"));
+        assertEquals(0, server.getRequestCount("download/all.zip"));
+        assertTrue(translation("fr").isFile());
+        assertTrue(translation("de").isFile());
+        assertTrue(new File(crowdinDirectory(project), ".crowdin-pull-fr").isFile());
+    }
+
+    @Test
+    public void pullsAgainLanguageDroppedThenAddedBack() throws Exception {
+        pull("fr", "de");
+        pull("fr");
+        assertFalse(new File(crowdinDirectory(project), "de").exists());
+        assertFalse(new File(crowdinDirectory(project), ".crowdin-pull-de").exists());
+
+        // The archive of de did not change, it must still be extracted again
+        pull("fr", "de");
+
+        assertEquals(Collections.singletonMap("greeting", "Hallo"), load(translation("de")));
+    }
+
+    @Test
+    public void pullsAgainLanguagesAfterSwitchingModes() throws Exception {
+        pull("fr", "de");
+        server.removeTranslations("de");
+        pull();
+        assertFalse(new File(crowdinDirectory(project), "de").exists());
+        assertFalse(new File(crowdinDirectory(project), ".crowdin-pull-fr").exists());
+
+        // de.zip is the same as before the switch, it must still be extracted again
+        server.addTranslation("de", LIB, "messages.properties", "greeting=Hallo\n");
+        pull("fr", "de");
+
+        assertEquals(Collections.singletonMap("greeting", "Hallo"), load(translation("de")));
+        assertFalse(new File(crowdinDirectory(project), ".crowdin-pull").exists());
+
+        // and the other way round
+        pull();
+        assertTrue(translation("de").isFile());
+        assertTrue(new File(crowdinDirectory(project), ".crowdin-pull").isFile());
+        assertFalse(new File(crowdinDirectory(project), ".crowdin-pull-de").exists());
+    }
+
+    @Test
+    public void keepsLanguageWhoseDownloadFailed() throws Exception {
+        pull("fr", "de");
+        server.failNext("download/de.zip", 10, 500);
+
+        try {
+            pull("fr", "de");
+            fail("The pull should have failed");
+        } catch (Exception e) {
+            assertTrue(translation("de").isFile());
+            assertTrue(new File(crowdinDirectory(project), ".crowdin-pull-de").isFile());
+        }
+    }
+
+    private static class ZipFilter implements java.io.FilenameFilter {
+        @Override
+        public boolean accept(File dir, String name) {
+            return name.endsWith(".zip");
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.googlecode.crowdin.maven;
+
+import com.googlecode.crowdin.maven.tool.SessionCloser;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class PushCrowdinMojoTest extends CrowdinTestSupport {
+
+    private static final String FOLDER = GROUP_ID + ".app";
+
+    private MavenProject project;
+
+    @Before
+    public void createProject() throws Exception {
+        project = newProject("app");
+        write(new File(messagesDirectory(project), "messages.properties"), "greeting=Hello\n");
+        write(new File(messagesDirectory(project), "errors.properties"), "error=Failed\n");
+    }
+
+    private PushCrowdinMojo push() throws Exception {
+        PushCrowdinMojo mojo = configure(new PushCrowdinMojo(), project);
+        mojo.execute();
+        return mojo;
+    }
+
+    @Test
+    public void addsFolderAndFiles() throws Exception {
+        PushCrowdinMojo mojo = push();
+
+        assertEquals(new TreeSet<>(Arrays.asList(FOLDER)), server.getDirectories());
+        assertEquals("greeting=Hello\n", server.getFile(FOLDER + "/messages.properties"));
+        assertEquals("error=Failed\n", server.getFile(FOLDER + "/errors.properties"));
+        assertEquals(1, server.getRequestCount("add-directory"));
+        assertEquals(1, server.getRequestCount("add-file"));
+        // The revisions of the added files are recorded
+        assertEquals(2, server.getRequestCount("info"));
+        assertEquals(2, mojo.metrics.getCounter("files.added"));
+        assertTrue(new File(project.getBuild().getDirectory(), "crowdin/push.properties").isFile());
+        assertTrue(new File(project.getBuild().getDirectory(), "crowdin/crowdin-metrics-push.json").isFile());
+    }
+
+    @Test
+    public void sendsNothingWhenUnchanged() throws Exception {
+        push();
+        server.resetCounts();
+
+        PushCrowdinMojo mojo = push();
+
+        assertEquals(1, server.getRequestCount("info"));
+        assertEquals(1, server.getRequestCount(null));
+        assertEquals(2, mojo.metrics.getCounter("files.unchanged"));
+    }
+
+    @Test
+    public void updatesChangedFiles() throws Exception {
+        push();
+        write(new File(messagesDirectory(project), "messages.properties"), "greeting=Hi\n");
+        server.resetCounts();
+
+        push();
+
+        assertEquals(1, server.getRequestCount("update-file"));
+        assertEquals(0, server.getRequestCount("add-file"));
+        assertEquals("greeting=Hi\n", server.getFile(FOLDER + "/messages.properties"));
+    }
+
+    @Test
+    public void deletesRemovedFiles() throws Exception {
+        push();
+        assertTrue(new File(messagesDirectory(project), "errors.properties").delete());
+        server.resetCounts();
+
+        push();
+
+        assertEquals(1, server.getRequestCount("delete-file"));
+        assertEquals(new TreeSet<>(Arrays.asList(FOLDER + "/messages.properties")), server.getFiles());
+    }
+
+    @Test
+    public void pushesAgainFilesChangedOnCrowdin() throws Exception {
+        push();
+        server.putFile(FOLDER + "/messages.properties", "greeting=Pushed from another branch\n");
+        server.resetCounts();
+
+        push();
+
+        assertEquals(1, server.getRequestCount("update-file"));
+        assertEquals("greeting=Hello\n", server.getFile(FOLDER + "/messages.properties"));
+
+        // The revision of the update is recorded, the next push has nothing to send
+        server.resetCounts();
+        push();
+        assertEquals(1, server.getRequestCount(null));
+    }
+
+    @Test
+    public void ignoresRevisionsWhenDisabled() throws Exception {
+        PushCrowdinMojo mojo = configure(new PushCrowdinMojo(), project);
+        mojo.checkRemoteRevision = false;
+        mojo.execute();
+        assertEquals(1, server.getRequestCount("info"));
+        server.putFile(FOLDER + "/messages.properties", "greeting=Pushed from another branch\n");
+        server.resetCounts();
+
+        mojo = configure(new PushCrowdinMojo(), project);
+        mojo.checkRemoteRevision = false;
+        mojo.execute();
+
+        assertEquals(0, server.getRequestCount("update-file"));
+    }
+
+    @Test
+    public void forcePushesEveryFile() throws Exception {
+        push();
+        server.resetCounts();
+
+        PushCrowdinMojo mojo = configure(new PushCrowdinMojo(), project);
+        mojo.force = true;
+        mojo.execute();
+
+        assertEquals(1, server.getRequestCount("update-file"));
+        assertEquals(2, mojo.metrics.getCounter("files.updated"));
+    }
+
+    @Test
+    public void sendsFilesInChunks() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            write(new File(messagesDirectory(project), "extra" + i + ".properties"), "key=" + i + "\n");
+        }
+        PushCrowdinMojo mojo = configure(new PushCrowdinMojo(), project);
+        mojo.filesPerRequest = 2;
+        mojo.execute();
+
+        assertEquals(4, server.getRequestCount("add-file"));
+        assertEquals(7, server.getFiles().size());
+    }
+
+    @Test
+    public void retriesRateLimitedRequests() throws Exception {
+        server.failNext("add-file", 2, 429);
+
+        PushCrowdinMojo mojo = push();
+
+        assertEquals(3, server.getRequestCount("add-file"));
+        assertEquals(2, mojo.metrics.getCounter("retries"));
+        assertEquals(2, server.getFiles().size());
+    }
+
+    @Test
+    public void waitsWhenRateLimited() throws Exception {
+        server.setRateLimit(3);
+        PushCrowdinMojo mojo = configure(new PushCrowdinMojo(), project);
+        mojo.filesPerRequest = 1;
+        mojo.execute();
+
+        assertTrue(mojo.metrics.getCounter("retries") > 0);
+        assertEquals(2, server.getFiles().size());
+    }
+
+    @Test
+    public void doesNotRetryFailedAddition() throws Exception {
+        server.failNext("add-file", 1, 500);
+
+        try {
+            push();
+            fail("The push should have failed");
+        } catch (MojoExecutionException e) {
+            assertEquals(1, server.getRequestCount("add-file"));
+        }
+
+        // The files that were not pushed are not recorded as pushed
+        server.resetCounts();
+        push();
+        assertEquals(1, server.getRequestCount("add-file"));
+        assertEquals(2, server.getFiles().size());
+    }
+
+    @Test
+    public void retriesIdempotentRequests() throws Exception {
+        server.failNext("info", 2, 502);
+
+        PushCrowdinMojo mojo = push();
+
+        assertEquals(2, mojo.metrics.getCounter("retries"));
+        assertEquals(2, server.getFiles().size());
+    }
+
+    @Test
+    public void pushesReactorInOneBatch() throws Exception {
+        MavenProject root = newProject("root");
+        MavenProject other = newProject("other");
+        write(new File(messagesDirectory(other), "messages.properties"), "greeting=Hello\n");
+        newSession(root, project, other);
+
+        PushReactorCrowdinMojo mojo = configure(new PushReactorCrowdinMojo(), root);
+        mojo.execute();
+
+        assertEquals(new TreeSet<>(Arrays.asList(FOLDER, GROUP_ID + ".other")), server.getDirectories());
+        assertEquals(3, server.getFiles().size());
+        assertEquals(1, server.getRequestCount("add-file"));
+        assertTrue(new File(project.getBuild().getDirectory(), "crowdin/push.properties").isFile());
+        assertTrue(new File(other.getBuild().getDirectory(), "crowdin/push.properties").isFile());
+        assertFalse(new File(root.getBuild().getDirectory(), "crowdin/push.properties").exists());
+    }
+
+    @Test
+    public void closesConnectionsWhenSessionEnds() throws Exception {
+        newSession(project);
+        SessionCloser.open(session);
+        PushCrowdinMojo mojo = push();
+
+        for (Closeable closeable : SessionCloser.close(session)) {
+            closeable.close();
+        }
+
+        try {
+            mojo.client.execute(new HttpGet(server.getApiUrl()));
+            fail("The client should be closed");
+        } catch (IllegalStateException e) {
+            // Connection pool shut down
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.project.MavenProject;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ApiThrottleTest {
+
+    private static MavenSession newSession() {
+        return new MavenSession(null, new DefaultMavenExecutionRequest(), new DefaultMavenExecutionResult(),
+                Collections.<MavenProject>emptyList());
+    }
+
+    @Test
+    public void pausesOnlyTheRequestsOfItsSession() throws Exception {
+        MavenSession session = newSession();
+        ApiThrottle.get(session).pause(60000);
+
+        assertSame(ApiThrottle.get(session), ApiThrottle.get(session));
+        assertFalse(ApiThrottle.get(session).await(System.currentTimeMillis() + 1000));
+        assertTrue(ApiThrottle.get(newSession()).await(System.currentTimeMillis() + 1000));
+    }
+}
@@ -0,0 +1,182 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ArchiveCacheTest {
+
+    private static final String KEY = "project-all";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = temp.newFolder("cache");
+        ArchiveCache.clear();
+    }
+
+    @After
+    public void clear() {
+        ArchiveCache.clear();
+    }
+
+    /**
+     * Serves the given content, or answers that it did not change when the cached archive has the same ETag.
+     */
+    private static class FakeDownloader implements ArchiveCache.Downloader {
+        private final String content;
+        private final AtomicInteger downloads = new AtomicInteger();
+        private volatile PullState previous;
+
+        FakeDownloader(String content) {
+            this.content = content;
+        }
+
+        @Override
+        public PullState download(PullState previous, File target) throws Exception {
+            downloads.incrementAndGet();
+            this.previous = previous;
+            String etag = "\"" + Hashing.sha256(content) + "\"";
+            if (etag.equals(previous.getEtag())) {
+                return null;
+            }
+            // Leaves time to concurrent callers
+            Thread.sleep(50);
+            Files.write(target.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            PullState state = new PullState();
+            state.setEtag(etag);
+            state.setContentHash(Hashing.sha256(content));
+            state.setContentLength(content.length());
+            return state;
+        }
+    }
+
+    private static String read(ArchiveCache.Archive archive) throws IOException {
+        return new String(Files.readAllBytes(archive.getFile().toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void downloadsOncePerSession() throws Exception {
+        final Object session = new Object();
+        final FakeDownloader downloader = new FakeDownloader("v1");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ArchiveCache.Archive>> archives = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                archives.add(executor.submit(new Callable<ArchiveCache.Archive>() {
+                    @Override
+                    public ArchiveCache.Archive call() throws Exception {
+                        return ArchiveCache.get(session, KEY, directory, downloader);
+                    }
+                }));
+            }
+            File file = archives.get(0).get().getFile();
+            for (Future<ArchiveCache.Archive> archive : archives) {
+                assertEquals(file, archive.get().getFile());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, downloader.downloads.get());
+    }
+
+    @Test
+    public void reusesArchiveOfPreviousBuild() throws Exception {
+        ArchiveCache.Archive first = ArchiveCache.get(new Object(), KEY, directory, new FakeDownloader("v1"));
+
+        FakeDownloader downloader = new FakeDownloader("v1");
+        ArchiveCache.Archive second = ArchiveCache.get(new Object(), KEY, directory, downloader);
+
+        assertEquals(1, downloader.downloads.get());
+        assertEquals(first.getState().getEtag(), downloader.previous.getEtag());
+        assertEquals(first.getFile(), second.getFile());
+        assertEquals(first.getState().getContentHash(), second.getState().getContentHash());
+        assertEquals("v1", read(second));
+    }
+
+    @Test
+    public void keepsArchiveBeingReadWhenChanged() throws Exception {
+        ArchiveCache.Archive first = ArchiveCache.get(new Object(), KEY, directory, new FakeDownloader("v1"));
+
+        ArchiveCache.Archive second = ArchiveCache.get(new Object(), KEY, directory, new FakeDownloader("v2"));
+
+        assertNotEquals(first.getFile(), second.getFile());
+        assertEquals("v1", read(first));
+        assertEquals("v2", read(second));
+    }
+
+    @Test
+    public void downloadsAgainMissingArchive() throws Exception {
+        ArchiveCache.Archive first = ArchiveCache.get(new Object(), KEY, directory, new FakeDownloader("v1"));
+        assertTrue(first.getFile().delete());
+
+        FakeDownloader downloader = new FakeDownloader("v1");
+        ArchiveCache.Archive second = ArchiveCache.get(new Object(), KEY, directory, downloader);
+
+        assertNull(downloader.previous.getEtag());
+        assertEquals("v1", read(second));
+    }
+
+    @Test
+    public void deletesNothingOnFailedDownload() throws Exception {
+        ArchiveCache.Archive first = ArchiveCache.get(new Object(), KEY, directory, new FakeDownloader("v1"));
+        Object session = new Object();
+        try {
+            ArchiveCache.get(session, KEY, directory, new ArchiveCache.Downloader() {
+                @Override
+                public PullState download(PullState previous, File target) throws IOException {
+                    Files.write(target.toPath(), new byte[]{1, 2});
+                    throw new IOException("Connection reset");
+                }
+            });
+            fail("The download should have failed");
+        } catch (IOException e) {
+            assertEquals("Connection reset", e.getMessage());
+        }
+
+        for (String name : directory.list()) {
+            assertFalse(name, name.endsWith(".tmp"));
+        }
+        assertEquals("v1", read(first));
+        // The failure is not cached
+        FakeDownloader downloader = new FakeDownloader("v1");
+        assertEquals(first.getFile(), ArchiveCache.get(session, KEY, directory, downloader).getFile());
+        assertEquals(1, downloader.downloads.get());
+    }
+
+    @Test
+    public void keepsArchivesOfSimilarKeys() throws Exception {
+        ArchiveCache.Archive pt = ArchiveCache.get(new Object(), "project-pt", directory, new FakeDownloader("pt"));
+        ArchiveCache.Archive ptBr = ArchiveCache.get(new Object(), "project-pt-BR", directory,
+                new FakeDownloader("pt-BR"));
+        assertTrue(pt.getFile().setLastModified(0));
+
+        ArchiveCache.get(new Object(), "project-pt-BR", directory, new FakeDownloader("pt-BR 2"));
+        assertTrue(pt.getFile().isFile());
+        assertTrue(ptBr.getFile().isFile());
+
+        // Unused archives of the same key are deleted
+        assertTrue(ptBr.getFile().setLastModified(0));
+        ArchiveCache.get(new Object(), "project-pt-BR", directory, new FakeDownloader("pt-BR 3"));
+        assertFalse(ptBr.getFile().exists());
+        assertTrue(pt.getFile().isFile());
+    }
+}
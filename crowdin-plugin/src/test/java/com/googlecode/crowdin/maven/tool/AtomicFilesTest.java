@@ -0,0 +1,77 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class AtomicFilesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static AtomicFiles.Content content(final String text) {
+        return new AtomicFiles.Content() {
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+                // Single bytes then a block, as written by buffered writers
+                for (int i = 0; i < bytes.length / 2; i++) {
+                    out.write(bytes[i]);
+                }
+                out.write(bytes, bytes.length / 2, bytes.length - bytes.length / 2);
+            }
+        };
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void streamsContentOnlyWhenChanged() throws Exception {
+        File file = new File(folder.getRoot(), "sub/file.properties");
+
+        assertTrue(AtomicFiles.writeIfChanged(file, content("a=1\nb=2\n")));
+        assertEquals("a=1\nb=2\n", read(file));
+        assertTrue(file.setLastModified(1000));
+
+        assertFalse(AtomicFiles.writeIfChanged(file, content("a=1\nb=2\n")));
+        assertEquals(1000, file.lastModified());
+
+        for (String text : Arrays.asList("a=1\nb=3\n", "a=1\nb=3\nc=4\n", "a=1\n", "", "x")) {
+            assertTrue(text, AtomicFiles.writeIfChanged(file, content(text)));
+            assertEquals(text, read(file));
+        }
+        assertEquals(Arrays.asList("file.properties"), Arrays.asList(file.getParentFile().list()));
+    }
+
+    @Test
+    public void keepsFileWhenContentFails() throws Exception {
+        File file = folder.newFile("file.properties");
+        Files.write(file.toPath(), "a=1\n".getBytes(StandardCharsets.UTF_8));
+
+        try {
+            AtomicFiles.writeIfChanged(file, new AtomicFiles.Content() {
+                @Override
+                public void writeTo(OutputStream out) throws IOException {
+                    out.write("b=2\n".getBytes(StandardCharsets.UTF_8));
+                    throw new IOException("failed");
+                }
+            });
+            fail();
+        } catch (IOException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertEquals("a=1\n", read(file));
+        assertEquals(Arrays.asList("file.properties"), Arrays.asList(folder.getRoot().list()));
+    }
+}
@@ -0,0 +1,88 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class CrowdinResponseParserTest {
+
+    private static CrowdinResponse parse(String xml) throws Exception {
+        return CrowdinResponseParser.parse(new ByteArrayInputStream(
+                ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + xml).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void parsesFilesTree() throws Exception {
+        CrowdinResponse response = parse("<info><files>"
+                + "<item><node_type>directory</node_type><name>com.example.app</name><files>"
+                + "<item><node_type>directory</node_type><name>sub</name><files>"
+                + "<item><node_type>file</node_type><name>deep.properties</name><last_revision>7</last_revision></item>"
+                + "</files></item>"
+                + "<item><node_type>file</node_type><name>messages.properties</name>"
+                + "<last_updated>2013-01-31T13:33:14+0000</last_updated></item>"
+                + "</files></item>"
+                + "<item><node_type>file</node_type><name>root.properties</name><last_revision>3</last_revision></item>"
+                + "</files><details><name>project</name><languages><item>fr</item></languages></details></info>");
+
+        assertFalse(response.isError());
+        assertEquals("info", response.getRoot());
+        CrowdinFileIndex files = response.getFiles();
+        assertEquals(5, files.size());
+        assertTrue(files.containsFolder("com.example.app"));
+        assertTrue(files.containsFolder("com.example.app/sub"));
+        assertTrue(files.containsFile("com.example.app/sub/deep.properties"));
+        assertTrue(files.containsFile("root.properties"));
+        assertFalse(files.containsFile("com.example.app"));
+        assertFalse(files.containsFolder("messages.properties"));
+        assertEquals("7", files.get("com.example.app/sub/deep.properties").getRevision());
+        assertEquals("2013-01-31T13:33:14+0000", files.get("com.example.app/messages.properties").getRevision());
+        assertEquals("messages.properties", files.get("com.example.app/messages.properties").getName());
+        assertEquals(2, files.getChildren("com.example.app").size());
+        assertEquals(2, files.getChildren("").size());
+        assertTrue(files.getChildren("missing").isEmpty());
+    }
+
+    @Test
+    public void parsesError() throws Exception {
+        CrowdinResponse response = parse("<error><code>3</code><message>\n  API key is\n not valid  </message></error>");
+
+        assertTrue(response.isError());
+        assertEquals("3", response.getErrorCode());
+        assertEquals("API key is not valid", response.getErrorMessage());
+        assertNull(response.getFiles());
+    }
+
+    @Test
+    public void parsesStatusAndValues() throws Exception {
+        CrowdinResponse export = parse("<success status=\"built\"/>");
+        assertEquals("success", export.getRoot());
+        assertEquals("built", export.getStatus());
+
+        CrowdinResponse exportStatus = parse("<success><status>finished</status><progress>100</progress>"
+                + "<last_build><![CDATA[2013-01-31T13:33:14+0000]]></last_build></success>");
+        assertEquals("finished", exportStatus.getValue("status"));
+        assertEquals("2013-01-31T13:33:14+0000", exportStatus.getValue("last_build"));
+    }
+
+    @Test
+    public void parsesLanguages() throws Exception {
+        CrowdinResponse response = parse("<status>"
+                + "<language><name>French</name><code>fr</code><phrases>10</phrases></language>"
+                + "<language><name>Portuguese, Brazilian</name><code>pt-BR</code></language>"
+                + "</status>");
+
+        assertEquals(Arrays.asList("fr", "pt-BR"), response.getLanguages());
+    }
+
+    @Test
+    public void ignoresExternalEntities() throws Exception {
+        CrowdinResponse response = parse("<!DOCTYPE error [<!ENTITY secret SYSTEM \"file:///etc/passwd\">]>"
+                + "<error><code>1</code><message>x</message></error>");
+
+        assertEquals("1", response.getErrorCode());
+    }
+}
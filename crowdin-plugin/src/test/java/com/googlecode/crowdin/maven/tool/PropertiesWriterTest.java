@@ -0,0 +1,99 @@
+package com.googlecode.crowdin.maven.tool;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PropertiesWriterTest {
+
+    private static Map<String, String> entries() {
+        Map<String, String> entries = new TreeMap<>();
+        entries.put("simple", "value");
+        entries.put("key with spaces", " leading and trailing ");
+        entries.put("separators=:", "a=b:c#d!e");
+        entries.put("#comment", "!bang");
+        entries.put("lines", "one\ntwo\r\tthree\f");
+        entries.put("unicode", "é中\u0001\u007f");
+        entries.put("backslash", "C:\\path\\");
+        entries.put("empty", "");
+        return entries;
+    }
+
+    @Test
+    public void isReadByProperties() throws Exception {
+        Map<String, String> entries = entries();
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(PropertiesWriter.toBytes(entries, "comment\nwith é and 中")));
+
+        assertEquals(entries.size(), properties.size());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue(), properties.getProperty(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void isReadByPropertiesReader() throws Exception {
+        Map<String, String> entries = entries();
+        Map<String, String> read = new HashMap<>();
+        PropertiesReader.load(new ByteArrayInputStream(PropertiesWriter.toBytes(entries, null)), read);
+
+        assertEquals(entries, read);
+    }
+
+    @Test
+    public void writesLikePropertiesWithoutDate() throws Exception {
+        Map<String, String> entries = entries();
+        Properties properties = new Properties();
+        properties.putAll(entries);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store(out, null);
+        Set<String> expected = new TreeSet<>();
+        for (String line : out.toString("ISO-8859-1").split(System.lineSeparator())) {
+            // Not the date comment
+            if (!line.startsWith("#")) {
+                expected.add(line);
+            }
+        }
+
+        String written = new String(PropertiesWriter.toBytes(entries, null), StandardCharsets.ISO_8859_1);
+        assertEquals(expected, new TreeSet<>(Arrays.asList(written.split("\n"))));
+    }
+
+    @Test
+    public void writesEntriesInOrder() {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("b", "2");
+        entries.put("a", "1");
+
+        assertEquals("#header\nb=2\na=1\n",
+                new String(PropertiesWriter.toBytes(entries, "header"), StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    public void writesToStreamWithoutClosingIt() throws Exception {
+        Map<String, String> entries = new TreeMap<>();
+        for (int i = 0; i < 10000; i++) {
+            entries.put("key" + i, "value " + i);
+        }
+        final boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        PropertiesWriter.write(entries, "header", out);
+
+        assertFalse(closed[0]);
+        assertArrayEquals(PropertiesWriter.toBytes(entries, "header"), out.toByteArray());
+        Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(entries.size(), properties.size());
+    }
+}